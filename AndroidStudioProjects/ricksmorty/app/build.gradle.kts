@@ -26,6 +26,11 @@ android {
         }
     }
 
+    buildFeatures {
+        // BuildConfig.DEBUG decides whether debug logging is enabled
+        buildConfig = true
+    }
+
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_17
         targetCompatibility = JavaVersion.VERSION_17
@@ -40,6 +45,7 @@ android {
 }
 
 dependencies {
+    implementation(project(":core"))
     implementation("com.google.cloud:google-cloud-translate:2.16.0")
     implementation(libs.appcompat)
     implementation(libs.material)
@@ -18,4 +18,8 @@
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+#-renamesourcefileattribute SourceFile
+# Drop debug logging from minified builds, along with building its arguments
+-assumenosideeffects class com.example.ricksmorty.DebugLog {
+    public static void d(...);
+}
@@ -0,0 +1,22 @@
+package com.example.ricksmorty;
+
+import android.util.Log;
+
+/**
+ * Sends {@link DebugLog} messages to logcat. Debug builds log everything from
+ * debug level up, release builds only warnings and errors.
+ */
+public class AndroidLogSink implements DebugLog.Sink {
+
+    /**
+     * Safe to call more than once
+     */
+    public static void install() {
+        DebugLog.setSink(new AndroidLogSink(), BuildConfig.DEBUG ? DebugLog.DEBUG : DebugLog.WARN);
+    }
+
+    @Override
+    public void log(int level, String tag, String message) {
+        Log.println(level, tag, message);
+    }
+}
@@ -11,14 +11,66 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
 
+/**
+ * The contacts of one duplicate group, exactly one of which is kept once the user
+ * picks it. Changing the pick rebinds only the radio buttons of the rows involved.
+ */
 public class ContactAdapter extends RecyclerView.Adapter<ContactAdapter.ContactViewHolder> {
+    // Payload of a change that only affects the radio button
+    private static final Object SELECTION_CHANGED = new Object();
+    // More than one contact is selected, as every contact is before the user picks one
+    private static final int SEVERAL_SELECTED = -2;
     
     private final List<ContactModel> contacts;
     private final DuplicateContactsActivity.DuplicateGroup group;
+    // Position of the only selected contact, NO_POSITION for none
+    private int selectedPosition;
     
     public ContactAdapter(List<ContactModel> contacts, DuplicateContactsActivity.DuplicateGroup group) {
         this.contacts = contacts;
         this.group = group;
+        this.selectedPosition = findSelected(contacts);
+    }
+    
+    DuplicateContactsActivity.DuplicateGroup getGroup() {
+        return group;
+    }
+    
+    private static int findSelected(List<ContactModel> contacts) {
+        int found = RecyclerView.NO_POSITION;
+        for (int i = 0; i < contacts.size(); i++) {
+            if (contacts.get(i).isSelected()) {
+                if (found != RecyclerView.NO_POSITION) {
+                    return SEVERAL_SELECTED;
+                }
+                found = i;
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Keep only the contact at {@code position} in its group
+     */
+    void select(int position) {
+        if (position == selectedPosition) {
+            return;
+        }
+        if (selectedPosition == SEVERAL_SELECTED) {
+            // Only the first pick has to look at the whole group
+            for (int i = 0; i < contacts.size(); i++) {
+                if (i != position && contacts.get(i).isSelected()) {
+                    contacts.get(i).setSelected(false);
+                    notifyItemChanged(i, SELECTION_CHANGED);
+                }
+            }
+        } else if (selectedPosition != RecyclerView.NO_POSITION) {
+            contacts.get(selectedPosition).setSelected(false);
+            notifyItemChanged(selectedPosition, SELECTION_CHANGED);
+        }
+        contacts.get(position).setSelected(true);
+        selectedPosition = position;
+        notifyItemChanged(position, SELECTION_CHANGED);
     }
     
     @NonNull
@@ -32,19 +84,33 @@ public class ContactAdapter extends RecyclerView.Adapter<ContactAdapter.ContactV
     @Override
     public void onBindViewHolder(@NonNull ContactViewHolder holder, int position) {
         ContactModel contact = contacts.get(position);
+        holder.adapter = this;
         holder.bind(contact);
     }
     
+    @Override
+    public void onBindViewHolder(@NonNull ContactViewHolder holder, int position, @NonNull List<Object> payloads) {
+        // Payloads are only passed when every pending change carried one, and selection is the only kind
+        if (!payloads.isEmpty()) {
+            holder.bindSelection(contacts.get(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+    
     @Override
     public int getItemCount() {
         return contacts.size();
     }
     
-    class ContactViewHolder extends RecyclerView.ViewHolder {
+    // Static, as rows are recycled between the adapters of all groups
+    static class ContactViewHolder extends RecyclerView.ViewHolder {
         private final TextView contactNameText;
         private final TextView contactDetailsText;
         private final TextView contactEmailText;
         private final RadioButton contactRadioButton;
+        // Adapter the row was last bound by
+        private ContactAdapter adapter;
         
         public ContactViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -53,66 +119,33 @@ public class ContactAdapter extends RecyclerView.Adapter<ContactAdapter.ContactV
             contactEmailText = itemView.findViewById(R.id.contactEmailText);
             contactRadioButton = itemView.findViewById(R.id.contactRadioButton);
             
-            // Set click listener for the entire item
-            itemView.setOnClickListener(v -> {
+            // Clicking the item or its radio button selects this contact
+            View.OnClickListener selectListener = v -> {
                 int position = getAdapterPosition();
-                if (position != RecyclerView.NO_POSITION) {
-                    ContactModel contact = contacts.get(position);
-                    // Unselect all contacts in the group
-                    for (ContactModel c : group.getContacts()) {
-                        c.setSelected(false);
-                    }
-                    // Select this contact
-                    contact.setSelected(true);
-                    notifyDataSetChanged();
+                if (adapter != null && position != RecyclerView.NO_POSITION) {
+                    adapter.select(position);
                 }
-            });
-            
-            // Set click listener for the radio button
-            contactRadioButton.setOnClickListener(v -> {
-                int position = getAdapterPosition();
-                if (position != RecyclerView.NO_POSITION) {
-                    ContactModel contact = contacts.get(position);
-                    // Unselect all contacts in the group
-                    for (ContactModel c : group.getContacts()) {
-                        c.setSelected(false);
-                    }
-                    // Select this contact
-                    contact.setSelected(true);
-                    notifyDataSetChanged();
-                }
-            });
+            };
+            itemView.setOnClickListener(selectListener);
+            contactRadioButton.setOnClickListener(selectListener);
         }
         
         public void bind(ContactModel contact) {
             contactNameText.setText(contact.getDisplayName());
             
-            // Build phone details text
-            StringBuilder phoneDetails = new StringBuilder("Phone: ");
-            if (!contact.getPhoneNumbers().isEmpty()) {
-                for (int i = 0; i < contact.getPhoneNumbers().size(); i++) {
-                    if (i > 0) phoneDetails.append(", ");
-                    phoneDetails.append(contact.getPhoneNumbers().get(i));
-                }
-            } else {
-                phoneDetails.append("None");
-            }
-            contactDetailsText.setText(phoneDetails.toString());
-            
-            // Build email details text
-            StringBuilder emailDetails = new StringBuilder("Email: ");
-            if (!contact.getEmails().isEmpty()) {
-                for (int i = 0; i < contact.getEmails().size(); i++) {
-                    if (i > 0) emailDetails.append(", ");
-                    emailDetails.append(contact.getEmails().get(i));
-                }
-            } else {
-                emailDetails.append("None");
-            }
-            contactEmailText.setText(emailDetails.toString());
+            // Each getter decodes its values from the table, so read them once per bind
+            contactDetailsText.setText(details("Phone: ", contact.getPhoneNumbers()));
+            contactEmailText.setText(details("Email: ", contact.getEmails()));
             
-            // Set radio button state
+            bindSelection(contact);
+        }
+        
+        void bindSelection(ContactModel contact) {
             contactRadioButton.setChecked(contact.isSelected());
         }
+        
+        private static String details(String label, List<String> values) {
+            return label + (values.isEmpty() ? "None" : String.join(", ", values));
+        }
     }
 }
@@ -0,0 +1,51 @@
+package com.example.ricksmorty;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds parsed contact tables in memory for the activities of one process, so a
+ * screen can hand a whole address book to the next one by passing only a session
+ * ID in the Intent instead of serializing every contact through Binder.
+ * Sessions do not survive process death; callers must handle a missing session.
+ */
+final class ContactSessionStore {
+    private static final String TAG = "ContactSessionStore";
+    private static final Map<String, ContactTable> sessions = new ConcurrentHashMap<>();
+
+    private ContactSessionStore() {
+    }
+
+    /**
+     * Store the contacts and return the ID to put in the Intent. The session
+     * takes ownership of the table and closes it in {@link #close}.
+     */
+    static String open(ContactTable contacts) {
+        String sessionId = UUID.randomUUID().toString();
+        sessions.put(sessionId, contacts);
+        return sessionId;
+    }
+
+    /**
+     * @return the contacts of the session, or null if it was closed or the process was restarted
+     */
+    static ContactTable get(String sessionId) {
+        return sessionId != null ? sessions.get(sessionId) : null;
+    }
+
+    static void close(String sessionId) {
+        ContactTable contacts = sessionId != null ? sessions.remove(sessionId) : null;
+        if (contacts == null) {
+            return;
+        }
+        try {
+            contacts.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Error closing contact session " + sessionId + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.ricksmorty;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small persistent string-to-string store backed by an append-only journal file.
+ * Only the keys and the byte position of each value are kept in memory; values are
+ * read back from the journal on demand. Entries are evicted least recently used
+ * first once the store holds more than {@code maxEntries} or its live lines take
+ * more than {@code maxBytes}, and the journal is compacted when it carries more
+ * dead bytes than live ones, so the file stays within about twice the byte budget.
+ */
+class DiskLruStore implements Closeable {
+    // Journals smaller than this are not worth compacting
+    private static final long MIN_COMPACT_BYTES = 64 * 1024;
+
+    private final File journalFile;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Location> index = new LinkedHashMap<>(16, 0.75f, true);
+    private RandomAccessFile journal;
+    // Bytes of the journal lines of live entries
+    private long liveBytes;
+
+    private static class Location {
+        final long offset;
+        final int length;
+        // Whole journal line: key, separator, value and line break
+        final int lineLength;
+
+        Location(long offset, int length, int lineLength) {
+            this.offset = offset;
+            this.length = length;
+            this.lineLength = lineLength;
+        }
+    }
+
+    DiskLruStore(File journalFile, int maxEntries, long maxBytes) throws IOException {
+        this.journalFile = journalFile;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+
+        File parent = journalFile.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Failed to create directory " + parent);
+        }
+        long validLength = readJournal();
+        journal = new RandomAccessFile(journalFile, "rw");
+        // Drop a partially written last line left behind by a crash
+        if (journal.length() != validLength) {
+            journal.setLength(validLength);
+        }
+        // The limits may have shrunk since the journal was written
+        trimToLimits();
+        compactIfWasteful();
+    }
+
+    synchronized String get(String key) throws IOException {
+        Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        byte[] value = new byte[location.length];
+        journal.seek(location.offset);
+        journal.readFully(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    synchronized void put(String key, String value) throws IOException {
+        byte[] keyBytes = sanitize(key).getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = sanitize(value).getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length + valueBytes.length + 2 > maxBytes) {
+            // Would evict everything, itself included
+            return;
+        }
+
+        long start = journal.length();
+        byte[] line = new byte[keyBytes.length + valueBytes.length + 2];
+        System.arraycopy(keyBytes, 0, line, 0, keyBytes.length);
+        line[keyBytes.length] = '\t';
+        System.arraycopy(valueBytes, 0, line, keyBytes.length + 1, valueBytes.length);
+        line[line.length - 1] = '\n';
+        journal.seek(start);
+        journal.write(line);
+
+        Location replaced = index.put(sanitize(key), new Location(start + keyBytes.length + 1, valueBytes.length,
+                line.length));
+        liveBytes += line.length - (replaced == null ? 0 : replaced.lineLength);
+        trimToLimits();
+        compactIfWasteful();
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    synchronized long sizeInBytes() {
+        return liveBytes;
+    }
+
+    // Evicts least recently used entries until both limits hold
+    private void trimToLimits() {
+        Iterator<Location> eldest = index.values().iterator();
+        while (eldest.hasNext() && (index.size() > maxEntries || liveBytes > maxBytes)) {
+            liveBytes -= eldest.next().lineLength;
+            eldest.remove();
+        }
+    }
+
+    private void compactIfWasteful() throws IOException {
+        long journalBytes = journal.length();
+        if (journalBytes > MIN_COMPACT_BYTES && journalBytes > 2 * liveBytes) {
+            compact();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        journal.close();
+    }
+
+    /**
+     * Rewrites the journal with only the live entries, least recently used first,
+     * so that reloading it restores the same eviction order.
+     */
+    private void compact() throws IOException {
+        File tempFile = new File(journalFile.getPath() + ".tmp");
+        LinkedHashMap<String, Location> compacted = new LinkedHashMap<>();
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+            long position = 0;
+            for (Map.Entry<String, Location> entry : index.entrySet()) {
+                Location location = entry.getValue();
+                byte[] keyBytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                byte[] value = new byte[location.length];
+                journal.seek(location.offset);
+                journal.readFully(value);
+
+                out.write(keyBytes);
+                out.write('\t');
+                compacted.put(entry.getKey(), new Location(position + keyBytes.length + 1, value.length,
+                        location.lineLength));
+                out.write(value);
+                out.write('\n');
+                position += keyBytes.length + value.length + 2;
+            }
+        }
+
+        journal.close();
+        if (!tempFile.renameTo(journalFile)) {
+            journal = new RandomAccessFile(journalFile, "rw");
+            throw new IOException("Failed to replace journal " + journalFile);
+        }
+        journal = new RandomAccessFile(journalFile, "rw");
+        index.clear();
+        index.putAll(compacted);
+    }
+
+    // Loads the key index from the journal and returns the length of its valid prefix
+    private long readJournal() throws IOException {
+        if (!journalFile.exists()) {
+            return 0;
+        }
+        long position = 0;
+        long lineStart = 0;
+        long valueStart = -1;
+        ByteArrayBuilder key = new ByteArrayBuilder();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(journalFile))) {
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b == '\n') {
+                    if (valueStart >= 0) {
+                        Location replaced = index.put(key.toUtf8String(), new Location(valueStart,
+                                (int) (position - 1 - valueStart), (int) (position - lineStart)));
+                        liveBytes += position - lineStart - (replaced == null ? 0 : replaced.lineLength);
+                    }
+                    key.reset();
+                    valueStart = -1;
+                    lineStart = position;
+                } else if (valueStart < 0) {
+                    if (b == '\t') {
+                        valueStart = position;
+                    } else {
+                        key.append(b);
+                    }
+                }
+            }
+        }
+        return lineStart;
+    }
+
+    // Tabs and line breaks are the journal's separators
+    private static String sanitize(String text) {
+        return text.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static class ByteArrayBuilder {
+        private byte[] bytes = new byte[64];
+        private int length;
+
+        void append(int b) {
+            if (length == bytes.length) {
+                byte[] grown = new byte[length * 2];
+                System.arraycopy(bytes, 0, grown, 0, length);
+                bytes = grown;
+            }
+            bytes[length++] = (byte) b;
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        String toUtf8String() {
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,13 +1,10 @@
 package com.example.ricksmorty;
 
-import android.content.ContentResolver;
-import android.content.ContentValues;
 import android.content.Intent;
 import android.net.Uri;
-import android.os.Build;
 import android.os.Bundle;
-import android.os.Environment;
-import android.provider.MediaStore;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
@@ -19,29 +16,34 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class DuplicateContactsActivity extends AppCompatActivity {
     private static final String TAG = "DuplicateContactsActivity";
-    public static final String EXTRA_CONTACTS = "extra_contacts";
+    // ID of the ContactSessionStore session holding the contacts to review
+    public static final String EXTRA_SESSION_ID = "extra_session_id";
     
     private RecyclerView duplicatesRecyclerView;
     private DuplicateGroupsAdapter adapter;
     private Button mergeButton;
     private Button cancelButton;
+    private String sessionId;
     private List<ContactModel> allContacts;
     private List<DuplicateGroup> duplicateGroups;
+    // Rows of allContacts that belong to some duplicate group
+    private BitSet groupedRows = new BitSet();
     private Uri processedFileUri;
     private String processedFilePath;
     private String originalFileName;
     private String countryCode = "91"; // Default country code
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -67,40 +69,41 @@ public class DuplicateContactsActivity extends AppCompatActivity {
         duplicateCountText.setTextColor(android.graphics.Color.BLACK);
         instructionText.setTextColor(android.graphics.Color.BLACK);
         
-        // Get contacts from intent
+        // Get contacts from the session named in the intent
         Intent intent = getIntent();
-        if (intent != null && intent.hasExtra(EXTRA_CONTACTS)) {
-            try {
-                allContacts = (List<ContactModel>) intent.getSerializableExtra(EXTRA_CONTACTS);
-                originalFileName = intent.getStringExtra("original_filename");
-                countryCode = intent.getStringExtra("country_code");
-                if (countryCode == null || countryCode.isEmpty()) {
-                    countryCode = "91"; // Default to India if not specified
-                }
-                
-                // Set country code for all contacts
-                for (ContactModel contact : allContacts) {
-                    contact.setCountryCode(countryCode);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error deserializing contacts: " + e.getMessage(), e);
-                Toast.makeText(this, "Error loading contacts: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        if (intent != null && intent.hasExtra(EXTRA_SESSION_ID)) {
+            sessionId = intent.getStringExtra(EXTRA_SESSION_ID);
+            ContactTable table = ContactSessionStore.get(sessionId);
+            if (table == null) {
+                // The process was restarted since the file was read, the contacts are gone
+                Log.w(TAG, "Contact session " + sessionId + " is no longer available");
+                Toast.makeText(this, "Contacts are no longer loaded, please select the file again",
+                        Toast.LENGTH_LONG).show();
                 allContacts = new ArrayList<>();
                 finish();
                 return;
             }
+            originalFileName = intent.getStringExtra("original_filename");
+            countryCode = intent.getStringExtra("country_code");
+            if (countryCode == null || countryCode.isEmpty()) {
+                countryCode = "91"; // Default to India if not specified
+            }
+
+            // Set country code for all contacts
+            table.setCountryCode(countryCode);
+            allContacts = table.asList();
         } else {
             allContacts = new ArrayList<>();
         }
         
-        // Find duplicate contacts
-        findDuplicates();
-        
         // Set up RecyclerView
         duplicatesRecyclerView.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new DuplicateGroupsAdapter(duplicateGroups);
+        adapter = new DuplicateGroupsAdapter(new ArrayList<>());
         duplicatesRecyclerView.setAdapter(adapter);
         
+        // Find duplicate contacts
+        findDuplicates();
+        
         // Set up buttons
         mergeButton.setOnClickListener(v -> saveSelectedContacts());
         cancelButton.setOnClickListener(v -> finish());
@@ -109,48 +112,21 @@ public class DuplicateContactsActivity extends AppCompatActivity {
         updateStatusText(duplicateCountText, instructionText, mergeButton);
     }
     
+    // Groups the contacts and shows the groups; running it again only rebinds the groups that changed
     private void findDuplicates() {
-        Map<String, List<ContactModel>> phoneMap = new HashMap<>();
         duplicateGroups = new ArrayList<>();
+        groupedRows = new BitSet(allContacts.size());
         
-        // First pass: group contacts by normalized phone number
-        for (ContactModel contact : allContacts) {
-            for (String phone : contact.getPhoneNumbers()) {
-                // Normalize phone number for better matching
-                String normalizedPhone = normalizePhoneNumber(phone);
-                if (!phoneMap.containsKey(normalizedPhone)) {
-                    phoneMap.put(normalizedPhone, new ArrayList<>());
-                }
-                phoneMap.get(normalizedPhone).add(contact);
-            }
-        }
-        
-        // Second pass: create duplicate groups
-        for (Map.Entry<String, List<ContactModel>> entry : phoneMap.entrySet()) {
-            if (entry.getValue().size() > 1) {
-                // This phone number appears in multiple contacts
-                DuplicateGroup group = new DuplicateGroup(entry.getKey(), entry.getValue());
-                duplicateGroups.add(group);
-            }
-        }
-        
-        // Remove duplicates from duplicate groups (same group might be created multiple times)
-        List<DuplicateGroup> uniqueGroups = new ArrayList<>();
-        for (DuplicateGroup group : duplicateGroups) {
-            boolean isDuplicate = false;
-            for (DuplicateGroup existingGroup : uniqueGroups) {
-                if (group.hasSameContacts(existingGroup)) {
-                    isDuplicate = true;
-                    break;
-                }
-            }
-            if (!isDuplicate) {
-                uniqueGroups.add(group);
+        // One group per set of contacts connected through shared phone numbers or emails
+        for (DuplicateDetector.Cluster cluster : DuplicateDetector.cluster(allContacts)) {
+            duplicateGroups.add(new DuplicateGroup(cluster.getMatchKey(), cluster.getContacts(), cluster.isEmailMatch()));
+            for (ContactModel contact : cluster.getContacts()) {
+                groupedRows.set(contact.getRow());
             }
         }
         
-        duplicateGroups = uniqueGroups;
         Log.d(TAG, "Found " + duplicateGroups.size() + " duplicate groups");
+        adapter.setGroups(duplicateGroups);
     }
     
     private void updateStatusText(TextView duplicateCountText, TextView instructionText, Button mergeButton) {
@@ -173,21 +149,11 @@ public class DuplicateContactsActivity extends AppCompatActivity {
     
     private void saveSelectedContacts() {
         // Create a list of all selected contacts
-        List<ContactModel> selectedContacts = new ArrayList<>();
+        List<ContactModel> selectedContacts = new ArrayList<>(allContacts.size());
         
         // Add all contacts that are not in any duplicate group
-        for (ContactModel contact : allContacts) {
-            boolean isInDuplicateGroup = false;
-            for (DuplicateGroup group : duplicateGroups) {
-                if (group.getContacts().contains(contact)) {
-                    isInDuplicateGroup = true;
-                    break;
-                }
-            }
-            
-            if (!isInDuplicateGroup) {
-                selectedContacts.add(contact);
-            }
+        for (int row = groupedRows.nextClearBit(0); row < allContacts.size(); row = groupedRows.nextClearBit(row + 1)) {
+            selectedContacts.add(allContacts.get(row));
         }
         
         // Add selected contacts from duplicate groups
@@ -199,146 +165,105 @@ public class DuplicateContactsActivity extends AppCompatActivity {
             }
         }
         
-        // Save to file
-        try {
-            List<String> vCardEntries = new ArrayList<>();
-            for (ContactModel contact : selectedContacts) {
-                vCardEntries.add(contact.getRawVCardData());
+        mergeButton.setEnabled(false);
+        cancelButton.setEnabled(false);
+        String newFileName = "deduplicated_" + (originalFileName != null ? originalFileName : "contacts.vcf");
+        
+        // Write the file in background
+        executorService.execute(() -> {
+            try {
+                saveToDownloads(selectedContacts, newFileName);
+                
+                mainHandler.post(() -> {
+                    Toast.makeText(this, "Saved " + selectedContacts.size() + " contacts to Downloads", 
+                            Toast.LENGTH_LONG).show();
+                    
+                    // Return result to MainActivity
+                    Intent resultIntent = new Intent();
+                    resultIntent.putExtra("processed_file_uri", processedFileUri);
+                    resultIntent.putExtra("processed_file_path", processedFilePath);
+                    resultIntent.putExtra("contact_count", selectedContacts.size());
+                    setResult(RESULT_OK, resultIntent);
+                    finish();
+                });
+            } catch (IOException e) {
+                Log.e(TAG, "Error saving contacts: " + e.getMessage(), e);
+                mainHandler.post(() -> {
+                    mergeButton.setEnabled(true);
+                    cancelButton.setEnabled(true);
+                    Toast.makeText(this, "Error saving contacts: " + e.getMessage(), 
+                            Toast.LENGTH_LONG).show();
+                });
             }
-            
-            String newFileName = "deduplicated_" + (originalFileName != null ? originalFileName : "contacts.vcf");
-            saveToDownloads(vCardEntries, newFileName);
-            
-            Toast.makeText(this, "Saved " + selectedContacts.size() + " contacts to Downloads", 
-                    Toast.LENGTH_LONG).show();
-            
-            // Return result to MainActivity
-            Intent resultIntent = new Intent();
-            resultIntent.putExtra("processed_file_uri", processedFileUri);
-            resultIntent.putExtra("processed_file_path", processedFilePath);
-            resultIntent.putExtra("contact_count", selectedContacts.size());
-            setResult(RESULT_OK, resultIntent);
-            finish();
-            
-        } catch (IOException e) {
-            Log.e(TAG, "Error saving contacts: " + e.getMessage(), e);
-            Toast.makeText(this, "Error saving contacts: " + e.getMessage(), 
-                    Toast.LENGTH_LONG).show();
-        }
+        });
     }
     
     // Save the processed contacts to the Downloads directory
-    private void saveToDownloads(List<String> processedContacts, String fileName) throws IOException {
-        String content = String.join("", processedContacts);
-
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-            // For Android 10 (API 29) and above, use MediaStore
-            ContentValues values = new ContentValues();
-            values.put(MediaStore.Downloads.DISPLAY_NAME, fileName);
-            values.put(MediaStore.Downloads.MIME_TYPE, "text/x-vcard");
-            values.put(MediaStore.Downloads.IS_PENDING, 1);
-
-            ContentResolver resolver = getContentResolver();
-            Uri uri = resolver.insert(MediaStore.Downloads.EXTERNAL_CONTENT_URI, values);
-
-            if (uri != null) {
-                try (OutputStream os = resolver.openOutputStream(uri)) {
-                    if (os != null) {
-                        os.write(content.getBytes());
-                    }
-                }
-
-                values.clear();
-                values.put(MediaStore.Downloads.IS_PENDING, 0);
-                resolver.update(uri, values, null, null);
-                
-                processedFileUri = uri;
-                processedFilePath = "Downloads/" + fileName;
-            } else {
-                throw new IOException("Failed to create file in Downloads");
-            }
-        } else {
-            // For older Android versions
-            File downloadsDir = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
-            if (!downloadsDir.exists()) {
-                if (!downloadsDir.mkdirs()) {
-                    throw new IOException("Failed to create Downloads directory");
-                }
-            }
-            
-            File outputFile = new File(downloadsDir, fileName);
-            try (FileOutputStream fos = new FileOutputStream(outputFile)) {
-                fos.write(content.getBytes());
+    private void saveToDownloads(List<ContactModel> contacts, String fileName) throws IOException {
+        RunMetrics metrics = RunReports.begin("save");
+        try (VCardWriter writer = VCardWriter.createInDownloads(this, fileName)) {
+            for (ContactModel contact : contacts) {
+                writer.write(contact);
             }
-            
-            processedFilePath = outputFile.getAbsolutePath();
-            processedFileUri = Uri.fromFile(outputFile);
+            writer.commit();
+            metrics.add(RunMetrics.CONTACTS, writer.getContactCount());
+            processedFileUri = writer.getUri();
+            processedFilePath = writer.getPath();
+        } finally {
+            RunReports.finish(metrics);
         }
     }
     
-    /**
-     * Normalize phone number for better matching of duplicates
-     */
-    private String normalizePhoneNumber(String phone) {
-        // Remove all non-digit characters except the + sign
-        String normalizedNumber = phone.replaceAll("[^\\d+]", "");
-        
-        // If the number starts with a +, remove it
-        if (normalizedNumber.startsWith("+")) {
-            normalizedNumber = normalizedNumber.substring(1);
-        }
-        
-        // Remove specific country code if present
-        if (countryCode != null && !countryCode.isEmpty() && normalizedNumber.startsWith(countryCode)) {
-            normalizedNumber = normalizedNumber.substring(countryCode.length());
-        }
-        
-        // Remove country code if present (assuming a max of 3 digits for country code)
-        if (normalizedNumber.length() > 10) {
-            normalizedNumber = normalizedNumber.substring(normalizedNumber.length() - 10);
-        }
-        
-        // Remove leading zeros
-        normalizedNumber = normalizedNumber.replaceFirst("^0+", "");
-        
-        return normalizedNumber;
-    }
-    
     /**
      * Class to represent a group of duplicate contacts
      */
-    public static class DuplicateGroup implements java.io.Serializable {
-        private static final long serialVersionUID = 1L;
-        
+    public static class DuplicateGroup {
         private final String phoneNumber;
         private final List<ContactModel> contacts;
+        private final boolean emailMatch;
         
         public DuplicateGroup(String phoneNumber, List<ContactModel> contacts) {
+            this(phoneNumber, contacts, false);
+        }
+        
+        /**
+         * @param emailMatch true if the shared key is an email rather than a phone number
+         */
+        public DuplicateGroup(String phoneNumber, List<ContactModel> contacts, boolean emailMatch) {
             this.phoneNumber = phoneNumber;
             this.contacts = new ArrayList<>(contacts);
+            this.emailMatch = emailMatch;
         }
         
         public String getPhoneNumber() {
             return phoneNumber;
         }
         
+        public boolean isEmailMatch() {
+            return emailMatch;
+        }
+        
         public List<ContactModel> getContacts() {
             return contacts;
         }
         
         public boolean hasSameContacts(DuplicateGroup other) {
-            if (contacts.size() != other.contacts.size()) {
-                return false;
-            }
-            
-            for (ContactModel contact : contacts) {
-                if (!other.contacts.contains(contact)) {
-                    return false;
-                }
-            }
-            
-            return true;
+            // A group holds each contact once, so equal sizes and containment mean the same contacts
+            return contacts.size() == other.contacts.size()
+                    && new HashSet<>(other.contacts).containsAll(contacts);
+        }
+    }
+    
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Keep the session across configuration changes, drop it once the screen is done
+        if (isFinishing()) {
+            // Queued behind a save that may still be reading the contacts
+            String finishedSession = sessionId;
+            executorService.execute(() -> ContactSessionStore.close(finishedSession));
         }
+        executorService.shutdown();
     }
     
     @Override
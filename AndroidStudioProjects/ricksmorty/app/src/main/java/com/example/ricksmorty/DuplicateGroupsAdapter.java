@@ -6,25 +6,77 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class DuplicateGroupsAdapter extends RecyclerView.Adapter<DuplicateGroupsAdapter.DuplicateGroupViewHolder> {
+    // Payload of a change that only affects the group title, i.e. its number in the list
+    private static final Object POSITION_CHANGED = new Object();
     
-    private final List<DuplicateContactsActivity.DuplicateGroup> duplicateGroups;
+    private List<DuplicateContactsActivity.DuplicateGroup> duplicateGroups;
+    // Rows of all groups' contact lists are recycled through one pool
+    private final RecyclerView.RecycledViewPool contactViewPool = new RecyclerView.RecycledViewPool();
     
     public DuplicateGroupsAdapter(List<DuplicateContactsActivity.DuplicateGroup> duplicateGroups) {
         this.duplicateGroups = duplicateGroups;
     }
     
+    /**
+     * Show a new set of groups, e.g. after regrouping, rebinding only the groups that
+     * were added, removed or changed their contacts rather than the whole list
+     */
+    public void setGroups(List<DuplicateContactsActivity.DuplicateGroup> groups) {
+        List<DuplicateContactsActivity.DuplicateGroup> oldGroups = duplicateGroups;
+        List<DuplicateContactsActivity.DuplicateGroup> newGroups = new ArrayList<>(groups);
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldGroups.size();
+            }
+            
+            @Override
+            public int getNewListSize() {
+                return newGroups.size();
+            }
+            
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                DuplicateContactsActivity.DuplicateGroup oldGroup = oldGroups.get(oldPosition);
+                DuplicateContactsActivity.DuplicateGroup newGroup = newGroups.get(newPosition);
+                return oldGroup.isEmailMatch() == newGroup.isEmailMatch()
+                        && Objects.equals(oldGroup.getPhoneNumber(), newGroup.getPhoneNumber());
+            }
+            
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                return oldPosition == newPosition
+                        && oldGroups.get(oldPosition).hasSameContacts(newGroups.get(newPosition));
+            }
+            
+            @Override
+            public Object getChangePayload(int oldPosition, int newPosition) {
+                // Same contacts at another position only needs its title renumbered. At the same
+                // position areContentsTheSame already found the contacts differ
+                return oldPosition != newPosition
+                        && oldGroups.get(oldPosition).hasSameContacts(newGroups.get(newPosition))
+                        ? POSITION_CHANGED : null;
+            }
+        });
+        duplicateGroups = newGroups;
+        diff.dispatchUpdatesTo(this);
+    }
+    
     @NonNull
     @Override
     public DuplicateGroupViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_duplicate_group, parent, false);
-        return new DuplicateGroupViewHolder(view);
+        return new DuplicateGroupViewHolder(view, contactViewPool);
     }
     
     @Override
@@ -33,6 +85,15 @@ public class DuplicateGroupsAdapter extends RecyclerView.Adapter<DuplicateGroups
         holder.bind(group, position);
     }
     
+    @Override
+    public void onBindViewHolder(@NonNull DuplicateGroupViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty()) {
+            holder.bindTitle(duplicateGroups.get(position), position);
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+    
     @Override
     public int getItemCount() {
         return duplicateGroups.size();
@@ -43,24 +104,28 @@ public class DuplicateGroupsAdapter extends RecyclerView.Adapter<DuplicateGroups
         private final TextView phoneNumberText;
         private final RecyclerView contactsRecyclerView;
         
-        public DuplicateGroupViewHolder(@NonNull View itemView) {
+        public DuplicateGroupViewHolder(@NonNull View itemView, RecyclerView.RecycledViewPool contactViewPool) {
             super(itemView);
             groupTitleText = itemView.findViewById(R.id.groupTitleText);
             phoneNumberText = itemView.findViewById(R.id.phoneNumberText);
             contactsRecyclerView = itemView.findViewById(R.id.contactsRecyclerView);
+            contactsRecyclerView.setLayoutManager(new LinearLayoutManager(itemView.getContext()));
+            contactsRecyclerView.setRecycledViewPool(contactViewPool);
         }
         
         public void bind(DuplicateContactsActivity.DuplicateGroup group, int position) {
-            // Set group title
-            String phoneNumber = group.getPhoneNumber();
-            List<ContactModel> contacts = group.getContacts();
-            groupTitleText.setText("Duplicate Group #" + (position + 1) + " (" + contacts.size() + " contacts)");
-            phoneNumberText.setText("Phone: " + phoneNumber);
+            bindTitle(group, position);
+            phoneNumberText.setText((group.isEmailMatch() ? "Email: " : "Phone: ") + group.getPhoneNumber());
             
-            // Set up the contacts RecyclerView
-            contactsRecyclerView.setLayoutManager(new LinearLayoutManager(itemView.getContext()));
-            ContactAdapter adapter = new ContactAdapter(contacts, group);
-            contactsRecyclerView.setAdapter(adapter);
+            // Set up the contacts RecyclerView, keeping its adapter if it already shows this group
+            RecyclerView.Adapter<?> current = contactsRecyclerView.getAdapter();
+            if (!(current instanceof ContactAdapter) || ((ContactAdapter) current).getGroup() != group) {
+                contactsRecyclerView.swapAdapter(new ContactAdapter(group.getContacts(), group), false);
+            }
+        }
+        
+        void bindTitle(DuplicateContactsActivity.DuplicateGroup group, int position) {
+            groupTitleText.setText("Duplicate Group #" + (position + 1) + " (" + group.getContacts().size() + " contacts)");
         }
     }
 }
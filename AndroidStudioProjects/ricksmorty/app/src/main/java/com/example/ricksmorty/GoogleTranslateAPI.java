@@ -1,17 +1,72 @@
 package com.example.ricksmorty;
 
+import android.content.Context;
 import android.util.Log;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Name translation through the free Google Translate endpoint, backed by the
+ * persistent translation cache. Requests go through a {@link GtxTranslator} whose
+ * base URL can be changed, e.g. to a local stub server.
+ */
 public class GoogleTranslateAPI {
     private static final String TAG = "GoogleTranslateAPI";
-    // Using a free translation API for demonstration
-    private static final String TRANSLATION_API_URL = "https://translate.googleapis.com/translate_a/single";
+    private static final String CACHE_DIR = "translation_cache";
+
+    private static volatile TranslationCache cache;
+    private static volatile int maxConcurrentRequests = 4;
+    private static volatile GtxTranslator client = new GtxTranslator(GtxTranslator.DEFAULT_BASE_URL, maxConcurrentRequests);
+
+    /**
+     * Limit how many translation requests may be open at the same time across all threads
+     */
+    public static void setMaxConcurrentRequests(int maxRequests) {
+        maxConcurrentRequests = Math.max(1, maxRequests);
+        client.setMaxConcurrentRequests(maxConcurrentRequests);
+    }
+
+    /**
+     * Send requests to another host serving the same API, such as a local stub server
+     */
+    public static void setBaseUrl(String baseUrl) {
+        client = new GtxTranslator(baseUrl, maxConcurrentRequests);
+    }
+
+    public static String getBaseUrl() {
+        return client.getBaseUrl();
+    }
+
+    /**
+     * False while requests fail fast because the service kept failing
+     */
+    public static boolean isAvailable() {
+        return client.isAvailable();
+    }
+
+    /**
+     * Rate limiter, circuit breaker and request counters of the current client
+     */
+    public static Map<String, Object> getMetrics() {
+        return client.getMetrics();
+    }
+
+    /**
+     * Enables the persistent translation cache in the app's files directory.
+     * Safe to call more than once; the store itself is opened on first lookup.
+     */
+    public static synchronized void initCache(Context context) {
+        if (cache == null) {
+            cache = new TranslationCache(new File(context.getApplicationContext().getFilesDir(), CACHE_DIR));
+        }
+    }
+
+    public static TranslationCache getCache() {
+        return cache;
+    }
 
     public static String translate(String text, String sourceLang, String targetLang) {
         if (text == null || text.trim().isEmpty()) {
@@ -19,63 +74,113 @@ public class GoogleTranslateAPI {
             return text;
         }
 
+        RunMetrics metrics = RunMetrics.current();
+        TranslationCache translationCache = cache;
+        if (translationCache != null) {
+            String cached = translationCache.get(text, sourceLang, targetLang);
+            if (cached != null) {
+                metrics.add(RunMetrics.TRANSLATION_CACHE_HITS, 1);
+                DebugLog.d(TAG, "Cached translation for {}: {}", text, cached);
+                return cached;
+            }
+            metrics.add(RunMetrics.TRANSLATION_CACHE_MISSES, 1);
+        }
+
         try {
-            Log.d(TAG, "Translating from " + sourceLang + " to " + targetLang + ": " + text);
-            
-            // For demo purposes, we're using a simple approach that doesn't require API keys
-            // In a production app, you should use the official Google Cloud Translation API with proper authentication
-            
-            // Build the query URL
-            String encodedText = URLEncoder.encode(text, StandardCharsets.UTF_8.toString());
-            String urlStr = TRANSLATION_API_URL + 
-                    "?client=gtx" +
-                    "&sl=" + sourceLang +
-                    "&tl=" + targetLang +
-                    "&dt=t" +
-                    "&q=" + encodedText;
-            
-            URL url = new URL(urlStr);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestProperty("User-Agent", "Mozilla/5.0");
-            connection.setConnectTimeout(10000); // 10 seconds timeout
-            connection.setReadTimeout(10000);    // 10 seconds read timeout
-            
-            // Read the response
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                
-                // Parse the response - it comes in a nested JSON array format
-                // Format is typically: [[["translated text","original text",null,null,1]],null,"en"]
-                String responseStr = response.toString();
-                Log.d(TAG, "Raw translation response: " + responseStr);
-                
-                // Simple parsing for demo purposes
-                if (responseStr.contains("\"")) {
-                    String translatedText = responseStr.split("\"")[1];
-                    Log.d(TAG, "Translation result: " + translatedText);
-                    
-                    // Verify we got a valid translation
-                    if (translatedText != null && !translatedText.isEmpty() && 
-                        !translatedText.equals(text)) {
-                        return translatedText;
-                    } else {
-                        Log.w(TAG, "Translation returned same or empty text");
-                        return text; // Return original if translation is same or empty
-                    }
-                } else {
-                    Log.e(TAG, "Unexpected response format: " + responseStr);
-                    return text; // Return original if parsing fails
-                }
+            DebugLog.d(TAG, "Translating from {} to {}: {}", sourceLang, targetLang, text);
+            long start = System.nanoTime();
+            String translatedText;
+            try {
+                translatedText = client.fetch(text, sourceLang, targetLang);
+            } finally {
+                metrics.stage(RunMetrics.TRANSLATION_REQUEST).recordSince(start);
             }
+            DebugLog.d(TAG, "Translation result: {}", translatedText);
+
+            // Remember every answer the service gave, including names it leaves as they are
+            if (translationCache != null && !translatedText.isEmpty()) {
+                translationCache.put(text, sourceLang, targetLang, translatedText);
+            }
+
+            // Verify we got a valid translation
+            if (!translatedText.isEmpty() && !translatedText.equals(text)) {
+                return translatedText;
+            } else {
+                DebugLog.d(TAG, "Translation returned same or empty text for {}", text);
+                return text; // Return original if translation is same or empty
+            }
+        } catch (GtxTranslator.UnavailableException e) {
+            Log.w(TAG, e.getMessage());
+            return text;
         } catch (Exception e) {
             Log.e(TAG, "Translation error: " + e.getMessage(), e);
             // Return the original text if translation fails
             return text;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Translate several texts using as few requests as possible, see
+     * {@link GtxTranslator#fetchBatch}. The result has the same size and order as
+     * {@code texts}; entries that could not be translated are returned unchanged.
+     */
+    public static List<String> translateBatch(List<String> texts, String sourceLang, String targetLang) {
+        List<String> results = new ArrayList<>(texts);
+        RunMetrics metrics = RunMetrics.current();
+        TranslationCache translationCache = cache;
+        int cacheHits = 0;
+
+        // Distinct texts still needing a request, with every position they appear at
+        Map<String, List<Integer>> pending = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            if (text == null || text.trim().isEmpty()) {
+                continue;
+            }
+            if (translationCache != null) {
+                String cached = translationCache.get(text, sourceLang, targetLang);
+                if (cached != null) {
+                    results.set(i, cached);
+                    cacheHits++;
+                    continue;
+                }
+                metrics.add(RunMetrics.TRANSLATION_CACHE_MISSES, 1);
+            }
+            List<Integer> positions = pending.get(text);
+            if (positions == null) {
+                positions = new ArrayList<>(1);
+                pending.put(text, positions);
+            }
+            positions.add(i);
+        }
+        metrics.add(RunMetrics.TRANSLATION_CACHE_HITS, cacheHits);
+        if (pending.isEmpty()) {
+            return results;
+        }
+
+        List<String> requested = new ArrayList<>(pending.keySet());
+        DebugLog.d(TAG, "Translating batch of {} from {} to {}", requested.size(), sourceLang, targetLang);
+        long start = System.nanoTime();
+        List<String> translated = client.fetchBatch(requested, sourceLang, targetLang);
+        metrics.stage(RunMetrics.TRANSLATION_REQUEST).recordSince(start);
+        int failed = 0;
+        for (int i = 0; i < requested.size(); i++) {
+            String text = requested.get(i);
+            String result = translated.get(i);
+            if (result == null) {
+                failed++;
+                continue;
+            }
+            if (translationCache != null) {
+                translationCache.put(text, sourceLang, targetLang, result);
+            }
+            for (int position : pending.get(text)) {
+                results.set(position, result);
+            }
+        }
+        if (failed > 0) {
+            Log.w(TAG, failed + " of " + requested.size() + " texts in the batch were not translated");
+        }
+        return results;
+    }
+}
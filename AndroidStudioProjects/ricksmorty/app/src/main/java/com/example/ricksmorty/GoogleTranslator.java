@@ -0,0 +1,35 @@
+package com.example.ricksmorty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link Translator} backed by the online {@link GoogleTranslateAPI}. The API hands
+ * back the input when it cannot translate, which is reported here as null.
+ */
+public class GoogleTranslator implements Translator {
+
+    @Override
+    public String translate(String text, String sourceLang, String targetLang) {
+        return orNull(text, GoogleTranslateAPI.translate(text, sourceLang, targetLang));
+    }
+
+    @Override
+    public List<String> translateBatch(List<String> texts, String sourceLang, String targetLang) {
+        List<String> translated = GoogleTranslateAPI.translateBatch(texts, sourceLang, targetLang);
+        List<String> results = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            results.add(orNull(texts.get(i), translated.get(i)));
+        }
+        return results;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return GoogleTranslateAPI.isAvailable();
+    }
+
+    private static String orNull(String text, String result) {
+        return result == null || result.isEmpty() || result.equals(text) ? null : result;
+    }
+}
@@ -1,16 +1,11 @@
 package com.example.ricksmorty;
 
-import android.content.ContentResolver;
-import android.content.ContentValues;
 import android.content.Intent;
 import android.database.Cursor;
 import android.net.Uri;
-import android.os.Build;
 import android.os.Bundle;
-import android.os.Environment;
 import android.os.Handler;
 import android.os.Looper;
-import android.provider.MediaStore;
 import android.provider.OpenableColumns;
 import android.util.Log;
 import android.view.View;
@@ -30,17 +25,14 @@ import com.google.android.material.button.MaterialButton;
 import com.google.android.material.switchmaterial.SwitchMaterial;
 import com.google.android.material.textfield.TextInputEditText;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-public class MainActivity extends AppCompatActivity implements VCardProcessor.ProgressListener {
+public class MainActivity extends AppCompatActivity implements ProgressAggregator.Target {
     private static final String TAG = "MainActivity";
     private static final int REQUEST_DUPLICATE_CONTACTS = 1001;
     private static final int REQUEST_STANDALONE_DUPLICATES = 1002;
@@ -59,6 +51,8 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
     private String processedFilePath;
     private final ExecutorService executorService = Executors.newSingleThreadExecutor();
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Hands progress from the processing threads to this activity at a bounded rate
+    private final ProgressAggregator progressAggregator = new ProgressAggregator(mainHandler, this);
     private MaterialButton manageDuplicatesButton;
     private TextInputEditText countryCodeInput;
 
@@ -71,7 +65,7 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
                     processFileButton.setEnabled(true);
                     shareFileButton.setEnabled(false);
                     outputPathText.setVisibility(View.GONE);
-                    processedNamesAdapter.clearItems();
+                    clearProcessedNames();
                     Log.d(TAG, "File selected: " + fileName + " with URI: " + selectedFileUri);
                 }
             });
@@ -81,6 +75,12 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        // Reuse translations and processed contacts from earlier runs
+        GoogleTranslateAPI.initCache(this);
+        VCardProcessor.initCache(this);
+        RunReports.init(this);
+        AndroidLogSink.install();
+
         // Set up toolbar
         Toolbar toolbar = findViewById(R.id.toolbar);
         setSupportActionBar(toolbar);
@@ -188,7 +188,7 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
         statusText.setText("Processing file...");
         processFileButton.setEnabled(false);
         manageDuplicatesButton.setEnabled(false);
-        processedNamesAdapter.clearItems();
+        clearProcessedNames();
 
         // Get country code
         String countryCode = countryCodeInput.getText().toString().trim();
@@ -203,49 +203,42 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
             try {
                 if (detectDuplicatesSwitch.isChecked()) {
                     // Process with duplicate detection
-                    List<ContactModel> contacts = VCardProcessor.processVCFForDuplicates(getContentResolver(), selectedFileUri, this);
+                    ContactTable contacts = VCardProcessor.processVCFForDuplicates(getContentResolver(), selectedFileUri,
+                            progressAggregator);
+                    progressAggregator.flush();
 
                     // Set country code for better duplicate detection
-                    for (ContactModel contact : contacts) {
-                        contact.setCountryCode(finalCountryCode);
-                    }
+                    contacts.setCountryCode(finalCountryCode);
 
                     // Check if there are duplicates
-                    boolean hasDuplicates = false;
-                    for (ContactModel contact : contacts) {
-                        if (contact.isDuplicate() || !contact.getDuplicates().isEmpty()) {
-                            hasDuplicates = true;
-                            break;
-                        }
-                    }
+                    boolean hasDuplicates = contacts.hasDuplicates();
 
                     if (hasDuplicates) {
                         // Launch duplicate contacts activity
                         mainHandler.post(() -> {
                             Intent intent = new Intent(MainActivity.this, DuplicateContactsActivity.class);
-                            intent.putExtra(DuplicateContactsActivity.EXTRA_CONTACTS, (Serializable) contacts);
+                            intent.putExtra(DuplicateContactsActivity.EXTRA_SESSION_ID, ContactSessionStore.open(contacts));
                             intent.putExtra("original_filename", getFileNameFromUri(selectedFileUri));
                             intent.putExtra("country_code", finalCountryCode);
                             startActivityForResult(intent, REQUEST_DUPLICATE_CONTACTS);
                         });
                     } else {
                         // No duplicates found, process normally
-                        List<String> processedContacts = new ArrayList<>();
-                        for (ContactModel contact : contacts) {
-                            processedContacts.add(contact.getRawVCardData());
-                        }
-
                         // Get the original filename
                         String originalFileName = getFileNameFromUri(selectedFileUri);
                         String newFileName = "processed_" + originalFileName;
 
                         // Save to Downloads directory
-                        saveToDownloads(processedContacts, newFileName);
+                        try {
+                            saveToDownloads(contacts.asList(), newFileName);
+                        } finally {
+                            contacts.close();
+                        }
 
                         // Update UI on main thread
                         mainHandler.post(() -> {
                             progressBar.setVisibility(View.GONE);
-                            statusText.setText("Processed " + processedContacts.size() + " contacts! No duplicates found.");
+                            statusText.setText("Processed " + contacts.size() + " contacts! No duplicates found.");
                             if (processedFileUri != null) {
                                 outputPathText.setText("Saved to Downloads: " + newFileName);
                                 outputPathText.setVisibility(View.VISIBLE);
@@ -260,20 +253,25 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
                         });
                     }
                 } else {
-                    // Process without duplicate detection
-                    List<String> processedContacts = VCardProcessor.processVCF(getContentResolver(), selectedFileUri, this);
-
                     // Get the original filename
                     String originalFileName = getFileNameFromUri(selectedFileUri);
                     String newFileName = "processed_" + originalFileName;
 
-                    // Save to Downloads directory
-                    saveToDownloads(processedContacts, newFileName);
+                    // Process without duplicate detection, writing each contact to Downloads as it is translated
+                    int contactCount;
+                    try (VCardWriter writer = VCardWriter.createInDownloads(this, newFileName)) {
+                        contactCount = VCardProcessor.processVCF(getContentResolver(), selectedFileUri,
+                                progressAggregator, writer);
+                        progressAggregator.flush();
+                        writer.commit();
+                        processedFileUri = writer.getUri();
+                        processedFilePath = writer.getPath();
+                    }
 
                     // Update UI on main thread
                     mainHandler.post(() -> {
                         progressBar.setVisibility(View.GONE);
-                        statusText.setText("Processed " + processedContacts.size() + " contacts with translations!");
+                        statusText.setText("Processed " + contactCount + " contacts with translations!");
                         if (processedFileUri != null) {
                             outputPathText.setText("Saved to Downloads: " + newFileName);
                             outputPathText.setVisibility(View.VISIBLE);
@@ -291,6 +289,7 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
                 Log.d(TAG, "Saved processed contacts to Downloads");
             } catch (Exception e) {
                 Log.e(TAG, "Error processing file: " + e.getMessage(), e);
+                progressAggregator.flush();
 
                 // Update UI on main thread
                 mainHandler.post(() -> {
@@ -304,73 +303,55 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
         });
     }
 
-    // Implementation of ProgressListener interface
+    // Implementation of ProgressAggregator.Target, called on the main thread
     @Override
-    public void onProgressUpdate(int current, int total, String currentName) {
-        mainHandler.post(() -> {
-            if (progressBar.isIndeterminate()) {
-                progressBar.setIndeterminate(false);
-                progressBar.setMax(total);
-            }
-            progressBar.setProgress(current);
-            statusText.setText("Processing " + current + " of " + total + ": " + currentName);
-        });
+    public void onProgress(int contactNumber, long bytesRead, long totalBytes, String currentName) {
+        if (totalBytes <= 0) {
+            // Size unknown, keep the bar indeterminate and just show the running count
+            statusText.setText("Processing contact #" + contactNumber + ": " + currentName);
+            return;
+        }
+        if (progressBar.isIndeterminate()) {
+            progressBar.setIndeterminate(false);
+            progressBar.setMax(100);
+        }
+        int percent = (int) Math.min(100, bytesRead * 100 / totalBytes);
+        progressBar.setProgress(percent);
+        statusText.setText("Processing contact #" + contactNumber + " (" + percent + "%): " + currentName);
     }
 
     @Override
-    public void onNameProcessed(String originalName, String processedName) {
-        mainHandler.post(() -> {
-            processedNamesAdapter.addItem(new ProcessedNameItem(originalName, processedName));
-            processedNamesRecyclerView.scrollToPosition(processedNamesAdapter.getItemCount() - 1);
-        });
+    public void onNamesProcessed(List<String> originalNames, List<String> processedNames) {
+        List<ProcessedNameItem> items = new ArrayList<>(originalNames.size());
+        for (int i = 0; i < originalNames.size(); i++) {
+            items.add(new ProcessedNameItem(originalNames.get(i), processedNames.get(i)));
+        }
+        processedNamesAdapter.addItems(items);
+        processedNamesRecyclerView.scrollToPosition(processedNamesAdapter.getItemCount() - 1);
+        long total = processedNamesAdapter.getTotalAdded();
+        if (total > ProcessedNamesAdapter.MAX_ITEMS) {
+            processedNamesLabel.setText("Processed Names (last " + ProcessedNamesAdapter.MAX_ITEMS + " of " + total + ")");
+        }
     }
 
-    // Save the processed contacts to the Downloads directory
-    private void saveToDownloads(List<String> processedContacts, String fileName) throws IOException {
-        String content = String.join("", processedContacts);
-
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-            // For Android 10 (API 29) and above, use MediaStore
-            ContentValues values = new ContentValues();
-            values.put(MediaStore.Downloads.DISPLAY_NAME, fileName);
-            values.put(MediaStore.Downloads.MIME_TYPE, "text/x-vcard");
-            values.put(MediaStore.Downloads.IS_PENDING, 1);
-
-            ContentResolver resolver = getContentResolver();
-            Uri uri = resolver.insert(MediaStore.Downloads.EXTERNAL_CONTENT_URI, values);
-
-            if (uri != null) {
-                try (OutputStream os = resolver.openOutputStream(uri)) {
-                    if (os != null) {
-                        os.write(content.getBytes());
-                    }
-                }
-
-                values.clear();
-                values.put(MediaStore.Downloads.IS_PENDING, 0);
-                resolver.update(uri, values, null, null);
-
-                processedFileUri = uri;
-                processedFilePath = "Downloads/" + fileName;
-            } else {
-                throw new IOException("Failed to create file in Downloads");
-            }
-        } else {
-            // For older Android versions
-            File downloadsDir = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
-            if (!downloadsDir.exists()) {
-                if (!downloadsDir.mkdirs()) {
-                    throw new IOException("Failed to create Downloads directory");
-                }
-            }
+    private void clearProcessedNames() {
+        processedNamesAdapter.clearItems();
+        processedNamesLabel.setText("Processed Names");
+    }
 
-            File outputFile = new File(downloadsDir, fileName);
-            try (FileOutputStream fos = new FileOutputStream(outputFile)) {
-                fos.write(content.getBytes());
+    // Save the processed contacts to the Downloads directory
+    private void saveToDownloads(List<ContactModel> contacts, String fileName) throws IOException {
+        RunMetrics metrics = RunReports.begin("save");
+        try (VCardWriter writer = VCardWriter.createInDownloads(this, fileName)) {
+            for (ContactModel contact : contacts) {
+                writer.write(contact);
             }
-
-            processedFilePath = outputFile.getAbsolutePath();
-            processedFileUri = Uri.fromFile(outputFile);
+            writer.commit();
+            metrics.add(RunMetrics.CONTACTS, writer.getContactCount());
+            processedFileUri = writer.getUri();
+            processedFilePath = writer.getPath();
+        } finally {
+            RunReports.finish(metrics);
         }
     }
 
@@ -417,7 +398,7 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
         statusText.setText("Analyzing contacts for duplicates...");
         processFileButton.setEnabled(false);
         manageDuplicatesButton.setEnabled(false);
-        processedNamesAdapter.clearItems();
+        clearProcessedNames();
 
         // Get country code
         String countryCode = countryCodeInput.getText().toString().trim();
@@ -431,33 +412,28 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
         executorService.execute(() -> {
             try {
                 // Process with duplicate detection
-                List<ContactModel> contacts = VCardProcessor.processVCFForDuplicates(getContentResolver(), selectedFileUri, this);
+                ContactTable contacts = VCardProcessor.processVCFForDuplicates(getContentResolver(), selectedFileUri,
+                        progressAggregator);
+                progressAggregator.flush();
 
                 // Set country code for better duplicate detection
-                for (ContactModel contact : contacts) {
-                    contact.setCountryCode(finalCountryCode);
-                }
+                contacts.setCountryCode(finalCountryCode);
 
                 // Check if there are duplicates
-                boolean hasDuplicates = false;
-                for (ContactModel contact : contacts) {
-                    if (contact.isDuplicate() || !contact.getDuplicates().isEmpty()) {
-                        hasDuplicates = true;
-                        break;
-                    }
-                }
+                boolean hasDuplicates = contacts.hasDuplicates();
 
                 if (hasDuplicates) {
                     // Launch duplicate contacts activity
                     mainHandler.post(() -> {
                         Intent intent = new Intent(MainActivity.this, DuplicateContactsActivity.class);
-                        intent.putExtra(DuplicateContactsActivity.EXTRA_CONTACTS, (Serializable) contacts);
+                        intent.putExtra(DuplicateContactsActivity.EXTRA_SESSION_ID, ContactSessionStore.open(contacts));
                         intent.putExtra("original_filename", getFileNameFromUri(selectedFileUri));
                         intent.putExtra("country_code", finalCountryCode);
                         startActivityForResult(intent, REQUEST_DUPLICATE_CONTACTS);
                     });
                 } else {
                     // No duplicates found
+                    contacts.close();
                     mainHandler.post(() -> {
                         progressBar.setVisibility(View.GONE);
                         statusText.setText("No duplicate contacts found in the file.");
@@ -468,6 +444,7 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
                 }
             } catch (Exception e) {
                 Log.e(TAG, "Error processing file: " + e.getMessage(), e);
+                progressAggregator.flush();
 
                 // Update UI on main thread
                 mainHandler.post(() -> {
@@ -481,9 +458,19 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
         });
     }
 
-    // Inner class for the RecyclerView adapter
+    /**
+     * RecyclerView adapter showing the most recently processed names. Only the last
+     * {@link #MAX_ITEMS} are kept, in a ring buffer, so memory stays the same however
+     * large the file is; older rows drop off the top as new ones arrive.
+     */
     private static class ProcessedNamesAdapter extends RecyclerView.Adapter<ProcessedNamesAdapter.ViewHolder> {
-        private final List<ProcessedNameItem> items = new ArrayList<>();
+        static final int MAX_ITEMS = 1000;
+
+        private final ProcessedNameItem[] items = new ProcessedNameItem[MAX_ITEMS];
+        // Slot of the oldest item shown
+        private int head;
+        private int size;
+        private long totalAdded;
 
         @Override
         public ViewHolder onCreateViewHolder(android.view.ViewGroup parent, int viewType) {
@@ -494,7 +481,7 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
 
         @Override
         public void onBindViewHolder(ViewHolder holder, int position) {
-            ProcessedNameItem item = items.get(position);
+            ProcessedNameItem item = items[(head + position) % MAX_ITEMS];
             holder.text1.setText(item.getOriginalName());
             holder.text1.setTextColor(android.graphics.Color.WHITE);
             holder.text2.setText("→ " + item.getProcessedName());
@@ -503,18 +490,45 @@ public class MainActivity extends AppCompatActivity implements VCardProcessor.Pr
 
         @Override
         public int getItemCount() {
-            return items.size();
+            return size;
         }
 
-        public void addItem(ProcessedNameItem item) {
-            items.add(item);
-            notifyItemInserted(items.size() - 1);
+        /**
+         * Number of names added since the list was last cleared, including those no longer shown
+         */
+        public long getTotalAdded() {
+            return totalAdded;
+        }
+
+        public void addItems(List<ProcessedNameItem> newItems) {
+            totalAdded += newItems.size();
+            // Of a batch larger than the buffer only the tail would survive
+            int skip = Math.max(0, newItems.size() - MAX_ITEMS);
+            int count = newItems.size() - skip;
+            int overflow = size + count - MAX_ITEMS;
+            if (overflow > 0) {
+                for (int i = 0; i < overflow; i++) {
+                    items[(head + i) % MAX_ITEMS] = null;
+                }
+                head = (head + overflow) % MAX_ITEMS;
+                size -= overflow;
+                notifyItemRangeRemoved(0, overflow);
+            }
+            int start = size;
+            for (int i = skip; i < newItems.size(); i++) {
+                items[(head + size) % MAX_ITEMS] = newItems.get(i);
+                size++;
+            }
+            notifyItemRangeInserted(start, count);
         }
 
         public void clearItems() {
-            int size = items.size();
-            items.clear();
-            notifyItemRangeRemoved(0, size);
+            int removed = size;
+            Arrays.fill(items, null);
+            head = 0;
+            size = 0;
+            totalAdded = 0;
+            notifyItemRangeRemoved(0, removed);
         }
 
         static class ViewHolder extends RecyclerView.ViewHolder {
@@ -0,0 +1,156 @@
+package com.example.ricksmorty;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent manifest of contacts processed in earlier runs: the xxHash64 of each
+ * normalized input vCard, together with the settings that shaped its output,
+ * maps to the processed vCard. Re-running an export that is mostly unchanged
+ * then only parses and translates the new or changed contacts.
+ * The store is opened lazily on first use so it is never touched from the main thread.
+ */
+class ProcessedContactCache {
+    private static final String TAG = "ProcessedContactCache";
+    private static final String JOURNAL_NAME = "processed.journal";
+    private static final int MAX_ENTRIES = 100000;
+    // The journal stays within about twice this
+    private static final long MAX_BYTES = 32L * 1024 * 1024;
+    // Contacts carrying photos or other large properties are processed again rather than stored
+    private static final int MAX_CONTACT_CHARS = 16 * 1024;
+
+    private final File directory;
+    private DiskLruStore store;
+    private boolean storeUnavailable = false;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    ProcessedContactCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Key of a contact as read from the file. {@code variant} names every setting
+     * that changes the output for the same input, so changing one misses the cache.
+     */
+    static String key(String contact, String variant) {
+        long hash = XxHash64.hash(contact.getBytes(StandardCharsets.UTF_8), 0);
+        return Long.toHexString(hash) + ":" + contact.length() + ":" + variant;
+    }
+
+    /**
+     * Returns the processed vCard stored for the key, or null
+     */
+    String get(String key) {
+        DiskLruStore disk = store();
+        if (disk != null) {
+            try {
+                String cached = disk.get(key);
+                if (cached != null) {
+                    hits.incrementAndGet();
+                    return unescape(cached);
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Error reading processed contact cache: " + e.getMessage(), e);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    void put(String key, String processedContact) {
+        if (processedContact.length() > MAX_CONTACT_CHARS) {
+            return;
+        }
+        DiskLruStore disk = store();
+        if (disk == null) {
+            return;
+        }
+        try {
+            disk.put(key, escape(processedContact));
+        } catch (IOException e) {
+            Log.w(TAG, "Error writing processed contact cache: " + e.getMessage(), e);
+        }
+    }
+
+    long getHitCount() {
+        return hits.get();
+    }
+
+    long getMissCount() {
+        return misses.get();
+    }
+
+    void resetCounters() {
+        hits.set(0);
+        misses.set(0);
+    }
+
+    private synchronized DiskLruStore store() {
+        if (store == null && !storeUnavailable) {
+            try {
+                store = new DiskLruStore(new File(directory, JOURNAL_NAME), MAX_ENTRIES, MAX_BYTES);
+            } catch (IOException e) {
+                Log.w(TAG, "Processed contact cache unavailable: " + e.getMessage(), e);
+                storeUnavailable = true;
+            }
+        }
+        return store;
+    }
+
+    // The journal is line based, so line breaks and tabs inside a vCard are escaped
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String unescape(String text) {
+        StringBuilder unescaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '\\' || i + 1 == text.length()) {
+                unescaped.append(c);
+                continue;
+            }
+            char next = text.charAt(++i);
+            switch (next) {
+                case 'n':
+                    unescaped.append('\n');
+                    break;
+                case 'r':
+                    unescaped.append('\r');
+                    break;
+                case 't':
+                    unescaped.append('\t');
+                    break;
+                default:
+                    unescaped.append(next);
+            }
+        }
+        return unescaped.toString();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.ricksmorty;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects progress reported by the processing threads and hands it to the UI at
+ * most {@link #MAX_FRAMES_PER_SECOND} times a second, as a single message on the
+ * main thread: only the latest progress of a frame is shown, and the names
+ * processed since the previous frame arrive together.
+ */
+public class ProgressAggregator implements VCardProcessor.ProgressListener {
+    public static final int MAX_FRAMES_PER_SECOND = 30;
+    private static final long FRAME_INTERVAL_MS = 1000 / MAX_FRAMES_PER_SECOND;
+
+    /**
+     * Receives the coalesced updates on the main thread
+     */
+    public interface Target {
+        void onProgress(int contactNumber, long bytesRead, long totalBytes, String currentName);
+
+        /**
+         * @param originalNames  names in the order they were processed
+         * @param processedNames what each of them became, at the same position
+         */
+        void onNamesProcessed(List<String> originalNames, List<String> processedNames);
+    }
+
+    private final Handler mainHandler;
+    private final Target target;
+    private final Runnable frame = this::deliver;
+
+    // Guarded by this
+    private boolean hasProgress;
+    private int contactNumber;
+    private long bytesRead;
+    private long totalBytes;
+    private String currentName;
+    private List<String> originalNames = new ArrayList<>();
+    private List<String> processedNames = new ArrayList<>();
+    private boolean frameScheduled;
+    private long lastFrameTime;
+
+    public ProgressAggregator(Handler mainHandler, Target target) {
+        this.mainHandler = mainHandler;
+        this.target = target;
+    }
+
+    @Override
+    public void onProgressUpdate(int contactNumber, long bytesRead, long totalBytes, String currentName) {
+        synchronized (this) {
+            hasProgress = true;
+            this.contactNumber = contactNumber;
+            this.bytesRead = bytesRead;
+            this.totalBytes = totalBytes;
+            this.currentName = currentName;
+            scheduleFrame();
+        }
+    }
+
+    @Override
+    public void onNameProcessed(String originalName, String processedName) {
+        synchronized (this) {
+            originalNames.add(originalName);
+            processedNames.add(processedName);
+            scheduleFrame();
+        }
+    }
+
+    /**
+     * Deliver whatever is pending right away, ahead of anything posted to the main
+     * thread after this call, e.g. the final status of a job
+     */
+    public void flush() {
+        synchronized (this) {
+            mainHandler.removeCallbacks(frame);
+            frameScheduled = true;
+        }
+        mainHandler.post(frame);
+    }
+
+    // Called holding the lock
+    private void scheduleFrame() {
+        if (frameScheduled) {
+            return;
+        }
+        frameScheduled = true;
+        long wait = lastFrameTime + FRAME_INTERVAL_MS - SystemClock.uptimeMillis();
+        mainHandler.postDelayed(frame, Math.max(0, wait));
+    }
+
+    private void deliver() {
+        boolean progress;
+        int number;
+        long read;
+        long total;
+        String name;
+        List<String> originals;
+        List<String> processed;
+        synchronized (this) {
+            frameScheduled = false;
+            lastFrameTime = SystemClock.uptimeMillis();
+            progress = hasProgress;
+            hasProgress = false;
+            number = contactNumber;
+            read = bytesRead;
+            total = totalBytes;
+            name = currentName;
+            originals = originalNames;
+            processed = processedNames;
+            if (!originals.isEmpty()) {
+                originalNames = new ArrayList<>();
+                processedNames = new ArrayList<>();
+            }
+        }
+        if (progress) {
+            target.onProgress(number, read, total, name);
+        }
+        if (!originals.isEmpty()) {
+            target.onNamesProcessed(originals, processed);
+        }
+    }
+}
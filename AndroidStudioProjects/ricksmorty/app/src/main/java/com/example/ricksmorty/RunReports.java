@@ -0,0 +1,105 @@
+package com.example.ricksmorty;
+
+import android.content.Context;
+import android.os.Debug;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Starts and finishes {@link RunMetrics} jobs on the device: adds how much the
+ * runtime allocated and collected during the job, logs the run report and keeps
+ * the most recent reports as JSON files in the app's files directory.
+ */
+public class RunReports {
+    private static final String TAG = "RunReports";
+    private static final String REPORT_DIR = "run_reports";
+    private static final int MAX_REPORTS = 20;
+
+    // Process-wide runtime statistics, see Debug#getRuntimeStat
+    private static final String BYTES_ALLOCATED_STAT = "art.gc.bytes-allocated";
+    private static final String GC_COUNT_STAT = "art.gc.gc-count";
+    static final String BYTES_ALLOCATED = "bytesAllocated";
+    static final String GC_COUNT = "gcCount";
+
+    private static volatile File reportDir;
+    private static volatile String lastReport;
+
+    /**
+     * Keep reports in the app's files directory; without this they are only logged
+     */
+    public static synchronized void init(Context context) {
+        if (reportDir == null) {
+            reportDir = new File(context.getApplicationContext().getFilesDir(), REPORT_DIR);
+        }
+    }
+
+    public static RunMetrics begin(String job) {
+        RunMetrics metrics = RunMetrics.begin(job);
+        metrics.add(BYTES_ALLOCATED, -runtimeStat(BYTES_ALLOCATED_STAT));
+        metrics.add(GC_COUNT, -runtimeStat(GC_COUNT_STAT));
+        return metrics;
+    }
+
+    public static void finish(RunMetrics metrics) {
+        metrics.finish();
+        metrics.add(BYTES_ALLOCATED, runtimeStat(BYTES_ALLOCATED_STAT));
+        metrics.add(GC_COUNT, runtimeStat(GC_COUNT_STAT));
+        String report = metrics.toJson();
+        lastReport = report;
+        Log.d(TAG, "Run report: " + report);
+
+        File dir = reportDir;
+        if (dir == null) {
+            return;
+        }
+        try {
+            save(dir, metrics.getJob() + "-" + System.currentTimeMillis() + ".json", report);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not save run report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The JSON report of the last job finished in this process, or null
+     */
+    public static String getLastReport() {
+        return lastReport;
+    }
+
+    private static void save(File dir, String fileName, String report) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        try (OutputStream out = new FileOutputStream(new File(dir, fileName))) {
+            out.write(report.getBytes(StandardCharsets.UTF_8));
+        }
+
+        File[] reports = dir.listFiles((parent, name) -> name.endsWith(".json"));
+        if (reports == null || reports.length <= MAX_REPORTS) {
+            return;
+        }
+        // Oldest first
+        Arrays.sort(reports, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < reports.length - MAX_REPORTS; i++) {
+            if (!reports[i].delete()) {
+                Log.w(TAG, "Could not delete old run report " + reports[i].getName());
+            }
+        }
+    }
+
+    // 0 where the runtime does not publish the statistic
+    private static long runtimeStat(String name) {
+        try {
+            String value = Debug.getRuntimeStat(name);
+            return value == null ? 0 : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -19,12 +19,11 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 
-import java.io.Serializable;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-public class StandaloneDuplicateActivity extends AppCompatActivity implements VCardProcessor.ProgressListener {
+public class StandaloneDuplicateActivity extends AppCompatActivity implements ProgressAggregator.Target {
     private static final String TAG = "StandaloneDuplicateActivity";
     private static final int REQUEST_DUPLICATE_CONTACTS = 1001;
     
@@ -36,6 +35,8 @@ public class StandaloneDuplicateActivity extends AppCompatActivity implements VC
     private Uri selectedFileUri;
     private final ExecutorService executorService = Executors.newSingleThreadExecutor();
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Hands progress from the processing thread to this activity at a bounded rate
+    private final ProgressAggregator progressAggregator = new ProgressAggregator(mainHandler, this);
 
     private final ActivityResultLauncher<Intent> filePickerLauncher =
             registerForActivityResult(new ActivityResultContracts.StartActivityForResult(), result -> {
@@ -52,6 +53,8 @@ public class StandaloneDuplicateActivity extends AppCompatActivity implements VC
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_standalone_duplicate);
+        RunReports.init(this);
+        AndroidLogSink.install();
 
         // Set up toolbar
         androidx.appcompat.widget.Toolbar toolbar = findViewById(R.id.toolbar);
@@ -141,27 +144,28 @@ public class StandaloneDuplicateActivity extends AppCompatActivity implements VC
         executorService.execute(() -> {
             try {
                 // Process with duplicate detection only
-                List<ContactModel> contacts = VCardProcessor.processVCFForDuplicates(getContentResolver(), selectedFileUri, this);
+                ContactTable contacts = VCardProcessor.processVCFForDuplicates(getContentResolver(), selectedFileUri,
+                        progressAggregator);
+                progressAggregator.flush();
 
                 // Set country code for better duplicate detection
-                for (ContactModel contact : contacts) {
-                    contact.setCountryCode(finalCountryCode);
-                }
+                contacts.setCountryCode(finalCountryCode);
 
                 // Check if there are duplicates
-                boolean hasDuplicates = contacts.stream().anyMatch(contact -> contact.isDuplicate() || !contact.getDuplicates().isEmpty());
+                boolean hasDuplicates = contacts.hasDuplicates();
 
                 if (hasDuplicates) {
                     // Launch duplicate contacts activity
                     mainHandler.post(() -> {
                         Intent intent = new Intent(StandaloneDuplicateActivity.this, DuplicateContactsActivity.class);
-                        intent.putExtra(DuplicateContactsActivity.EXTRA_CONTACTS, (Serializable) contacts);
+                        intent.putExtra(DuplicateContactsActivity.EXTRA_SESSION_ID, ContactSessionStore.open(contacts));
                         intent.putExtra("original_filename", MainActivity.getFileNameFromUri(this, selectedFileUri));
                         intent.putExtra("country_code", finalCountryCode);
                         startActivityForResult(intent, REQUEST_DUPLICATE_CONTACTS);
                     });
                 } else {
                     // No duplicates found
+                    contacts.close();
                     mainHandler.post(() -> {
                         progressBar.setVisibility(View.GONE);
                         statusText.setText("No duplicate contacts found in the file.");
@@ -171,6 +175,7 @@ public class StandaloneDuplicateActivity extends AppCompatActivity implements VC
                 }
             } catch (Exception e) {
                 Log.e(TAG, "Error processing file: " + e.getMessage(), e);
+                progressAggregator.flush();
 
                 // Update UI on main thread
                 mainHandler.post(() -> {
@@ -183,21 +188,25 @@ public class StandaloneDuplicateActivity extends AppCompatActivity implements VC
         });
     }
 
-    // Implementation of ProgressListener interface
+    // Implementation of ProgressAggregator.Target, called on the main thread
     @Override
-    public void onProgressUpdate(int current, int total, String currentName) {
-        mainHandler.post(() -> {
-            if (progressBar.isIndeterminate()) {
-                progressBar.setIndeterminate(false);
-                progressBar.setMax(total);
-            }
-            progressBar.setProgress(current);
-            statusText.setText("Checking " + current + " of " + total + ": " + currentName);
-        });
+    public void onProgress(int contactNumber, long bytesRead, long totalBytes, String currentName) {
+        if (totalBytes <= 0) {
+            // Size unknown, keep the bar indeterminate and just show the running count
+            statusText.setText("Checking contact #" + contactNumber + ": " + currentName);
+            return;
+        }
+        if (progressBar.isIndeterminate()) {
+            progressBar.setIndeterminate(false);
+            progressBar.setMax(100);
+        }
+        int percent = (int) Math.min(100, bytesRead * 100 / totalBytes);
+        progressBar.setProgress(percent);
+        statusText.setText("Checking contact #" + contactNumber + " (" + percent + "%): " + currentName);
     }
 
     @Override
-    public void onNameProcessed(String originalName, String processedName) {
+    public void onNamesProcessed(List<String> originalNames, List<String> processedNames) {
         // Not used in this activity
     }
 
@@ -0,0 +1,153 @@
+package com.example.ricksmorty;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier cache for translations: a small in-memory LRU in front of a persistent
+ * on-disk store, both keyed by (sourceLang, targetLang, text with normalized spacing).
+ * Texts the service left as they are are stored as "no translation", so a lookup of
+ * another spelling of the same text returns that text rather than the cached one.
+ * The disk store is opened lazily on first use so it is never touched from the main thread.
+ */
+public class TranslationCache {
+    private static final String TAG = "TranslationCache";
+    private static final String JOURNAL_NAME = "translations-v2.journal";
+    // Keyed case-insensitively, with identity answers stored as they came back
+    private static final String OLD_JOURNAL_NAME = "translations.journal";
+    // Stored in place of an answer that is the text itself
+    private static final String UNTRANSLATED = "";
+    private static final int DEFAULT_MEMORY_ENTRIES = 1024;
+    private static final int DEFAULT_DISK_ENTRIES = 50000;
+    private static final long DISK_BYTES = 4 * 1024 * 1024;
+
+    private final File directory;
+    private final int diskEntries;
+    private final Map<String, String> memory;
+    private DiskLruStore disk;
+    private boolean diskUnavailable = false;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TranslationCache(File directory) {
+        this(directory, DEFAULT_MEMORY_ENTRIES, DEFAULT_DISK_ENTRIES);
+    }
+
+    public TranslationCache(File directory, int memoryEntries, int diskEntries) {
+        this.directory = directory;
+        this.diskEntries = diskEntries;
+        this.memory = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached translation, {@code text} itself if the service left it as it
+     * is, or null if the text has not been translated before
+     */
+    public String get(String text, String sourceLang, String targetLang) {
+        String key = key(text, sourceLang, targetLang);
+        synchronized (memory) {
+            String cached = memory.get(key);
+            if (cached != null) {
+                memoryHits.incrementAndGet();
+                return cached.equals(UNTRANSLATED) ? text : cached;
+            }
+        }
+
+        DiskLruStore store = disk();
+        if (store != null) {
+            try {
+                String cached = store.get(key);
+                if (cached != null) {
+                    diskHits.incrementAndGet();
+                    synchronized (memory) {
+                        memory.put(key, cached);
+                    }
+                    return cached.equals(UNTRANSLATED) ? text : cached;
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Error reading translation cache: " + e.getMessage(), e);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String text, String sourceLang, String targetLang, String translation) {
+        String key = key(text, sourceLang, targetLang);
+        String value = normalize(translation).equals(normalize(text)) ? UNTRANSLATED : translation;
+        synchronized (memory) {
+            memory.put(key, value);
+        }
+
+        DiskLruStore store = disk();
+        if (store != null) {
+            try {
+                store.put(key, value);
+            } catch (IOException e) {
+                Log.w(TAG, "Error writing translation cache: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return memoryHits.get() + diskHits.get();
+    }
+
+    public long getMemoryHitCount() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHitCount() {
+        return diskHits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public void resetCounters() {
+        memoryHits.set(0);
+        diskHits.set(0);
+        misses.set(0);
+    }
+
+    private synchronized DiskLruStore disk() {
+        if (disk == null && !diskUnavailable) {
+            File oldJournal = new File(directory, OLD_JOURNAL_NAME);
+            if (oldJournal.exists() && !oldJournal.delete()) {
+                Log.w(TAG, "Could not delete old translation cache " + oldJournal);
+            }
+            try {
+                disk = new DiskLruStore(new File(directory, JOURNAL_NAME), diskEntries, DISK_BYTES);
+                Log.d(TAG, "Opened translation cache with " + disk.size() + " entries");
+            } catch (IOException e) {
+                // Keep working with the memory tier only
+                Log.w(TAG, "Translation cache unavailable on disk: " + e.getMessage(), e);
+                diskUnavailable = true;
+            }
+        }
+        return disk;
+    }
+
+    // Names differing only in spacing share one entry. Case is kept: the service may
+    // answer "RAHUL" and "Rahul" differently, and an identity answer depends on it
+    static String key(String text, String sourceLang, String targetLang) {
+        return sourceLang + '|' + targetLang + '|' + normalize(text);
+    }
+
+    private static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ");
+    }
+}
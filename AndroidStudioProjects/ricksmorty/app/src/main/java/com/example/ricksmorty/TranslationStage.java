@@ -0,0 +1,100 @@
+package com.example.ricksmorty;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs chunks of contacts through translation on a pool of worker threads and
+ * hands the results downstream strictly in the order the chunks were submitted.
+ * At most {@code 2 * workers} chunks are held at once, so a fast reader cannot
+ * buffer the whole file ahead of the translators.
+ */
+class TranslationStage {
+    interface ChunkProcessor {
+        List<String> process(List<String> chunk);
+    }
+
+    /**
+     * Receives each chunk with its processed contacts, at the same positions
+     */
+    interface ChunkConsumer {
+        void accept(List<String> chunk, List<String> processed) throws IOException;
+    }
+
+    private final ExecutorService workers;
+    private final ChunkProcessor processor;
+    private final ChunkConsumer output;
+    private final ArrayDeque<List<String>> chunks = new ArrayDeque<>();
+    private final ArrayDeque<Future<List<String>>> inFlight = new ArrayDeque<>();
+    private final int maxInFlight;
+
+    TranslationStage(int workerCount, ChunkProcessor processor, ChunkConsumer output) {
+        this.workers = Executors.newFixedThreadPool(workerCount);
+        this.processor = processor;
+        this.output = output;
+        this.maxInFlight = workerCount * 2;
+    }
+
+    /**
+     * Queue a chunk, first emitting finished chunks if too many are already in flight
+     */
+    void submit(List<String> chunk) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        while (inFlight.size() >= maxInFlight) {
+            emitOldest();
+        }
+        chunks.add(chunk);
+        inFlight.add(workers.submit(() -> processor.process(chunk)));
+    }
+
+    /**
+     * Wait for every queued chunk and emit it
+     */
+    void finish() throws IOException {
+        try {
+            while (!inFlight.isEmpty()) {
+                emitOldest();
+            }
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * Abandon queued work after a failure upstream
+     */
+    void cancel() {
+        for (Future<List<String>> future : inFlight) {
+            future.cancel(true);
+        }
+        inFlight.clear();
+        chunks.clear();
+        workers.shutdownNow();
+    }
+
+    private void emitOldest() throws IOException {
+        List<String> chunk = chunks.remove();
+        List<String> processed;
+        try {
+            processed = inFlight.remove().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for translations");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Translation failed: " + cause.getMessage(), cause);
+        }
+        output.accept(chunk, processed);
+    }
+}
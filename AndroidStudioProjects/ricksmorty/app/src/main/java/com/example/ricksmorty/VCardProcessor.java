@@ -1,67 +1,267 @@
 package com.example.ricksmorty;
 
 import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.provider.OpenableColumns;
 import android.util.Log;
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.regex.*;
 
 public class VCardProcessor {
     private static final String TAG = "VCardProcessor";
+    // Contacts whose names are translated together in batched requests
+    private static final int TRANSLATION_CHUNK_SIZE = 50;
+    private static final String CACHE_DIR = "processed_cache";
+    // Bump when processContact changes its output, so results of older versions are not reused
+    private static final int OUTPUT_VERSION = 1;
+    // How long a run may wait in total for an unavailable translation service to come back
+    private static final long RETRY_MAX_WAIT_MS = 30000;
+    private static final long RETRY_POLL_MS = 500;
+
+    private static volatile boolean tokenTranslation = true;
+    private static volatile int translationConcurrency = 4;
+    private static volatile ProcessedContactCache processedCache;
+    private static volatile Translator remoteTranslator = new GoogleTranslator();
+
+    /**
+     * Choose between translating names token by token (the default) or as whole strings
+     */
+    public static void setTokenTranslation(boolean enabled) {
+        tokenTranslation = enabled;
+    }
+
+    /**
+     * Number of chunks translated in parallel; the written file keeps the input order
+     */
+    public static void setTranslationConcurrency(int workers) {
+        translationConcurrency = Math.max(1, workers);
+    }
     
+    /**
+     * Translator asked for names the offline transliterator does not know, the
+     * Google Translate API by default
+     */
+    public static void setRemoteTranslator(Translator translator) {
+        remoteTranslator = translator;
+    }
+
+    /**
+     * Reuse the output of earlier runs for contacts whose text has not changed
+     */
+    public static synchronized void initCache(Context context) {
+        if (processedCache == null) {
+            processedCache = new ProcessedContactCache(
+                    new File(context.getApplicationContext().getFilesDir(), CACHE_DIR));
+        }
+    }
+
     // Interface for progress updates
-    public interface ProgressListener {
-        void onProgressUpdate(int current, int total, String currentName);
-        void onNameProcessed(String originalName, String processedName);
+    public interface ProgressListener extends ContactNameProcessor.NameListener {
+        /**
+         * Called while the file is streamed. {@code totalBytes} is -1 when the
+         * provider does not report a size for the file.
+         */
+        void onProgressUpdate(int contactNumber, long bytesRead, long totalBytes, String currentName);
+    }
+
+    /**
+     * Downstream stage that receives each vCard as soon as its END:VCARD line is read
+     */
+    public interface ContactConsumer {
+        void accept(String contact) throws IOException;
+    }
+
+    /**
+     * Like {@link ContactConsumer}, also told which bytes of the file the vCard was read from.
+     * The offset is -1 if those bytes cannot stand in for the vCard as they are, i.e. the
+     * file ends without a line break after END:VCARD.
+     */
+    interface ContactRangeConsumer {
+        void accept(String contact, long offset, int length) throws IOException;
     }
 
     public static List<String> processVCF(ContentResolver contentResolver, Uri fileUri, ProgressListener listener) {
         List<String> processedContacts = new ArrayList<>();
-        try {
-            // First pass: count total contacts for progress reporting
-            int totalContacts = countContacts(contentResolver, fileUri);
-            if (totalContacts == 0) {
-                throw new IOException("No valid contacts found in the file. Please check if it's a valid VCF file.");
+        processVCF(contentResolver, fileUri, listener, processedContacts::add);
+        return processedContacts;
+    }
+
+    /**
+     * Translate the file, handing each processed contact to {@code output} in input
+     * order while later contacts are still being read and translated. Contacts met
+     * while the translation service was failing fast are retried when their chunk is
+     * written, see {@link RetryBudget}.
+     *
+     * @return the number of contacts written to {@code output}
+     */
+    public static int processVCF(ContentResolver contentResolver, Uri fileUri, ProgressListener listener,
+                                 ContactConsumer output) {
+        RunMetrics metrics = RunReports.begin("translate");
+        int[] written = new int[1];
+        NameTranslator translator = newNameTranslator();
+        ProcessedContactCache cache = processedCache;
+        String variant = "v" + OUTPUT_VERSION + (tokenTranslation ? "-token" : "-whole");
+        if (cache != null) {
+            cache.resetCounters();
+        }
+        RetryBudget retry = new RetryBudget();
+        TranslationStage.ChunkConsumer emit = (chunk, processed) -> {
+            List<String> contacts = processed.contains(null)
+                    ? retryDeferred(chunk, processed, listener, translator, cache, variant, retry)
+                    : processed;
+            for (String contact : contacts) {
+                output.accept(contact);
             }
+            written[0] += contacts.size();
+            metrics.add(RunMetrics.CONTACTS, contacts.size());
+        };
+        TranslationStage stage = new TranslationStage(translationConcurrency,
+                chunk -> processChunk(chunk, listener, translator, cache, variant, retry), emit);
+        try {
+            List<String> chunk = new ArrayList<>(TRANSLATION_CHUNK_SIZE);
+            streamContacts(contentResolver, fileUri, listener, contact -> {
+                chunk.add(contact);
+                if (chunk.size() >= TRANSLATION_CHUNK_SIZE) {
+                    stage.submit(new ArrayList<>(chunk));
+                    chunk.clear();
+                }
+            });
+            stage.submit(chunk);
+            stage.finish();
+            Log.d(TAG, "Finished processing file. Total contacts: " + written[0]
+                    + ", reused from earlier runs: " + (cache != null ? cache.getHitCount() : 0)
+                    + ", distinct translations: " + translator.getRequestCount()
+                    + ", answered offline: " + translator.getOfflineCount()
+                    + " for " + translator.getNameCount() + " names"
+                    + ", translation service: " + GoogleTranslateAPI.getMetrics());
+        } catch (IOException e) {
+            stage.cancel();
+            Log.e(TAG, "Error processing VCF file: " + e.getMessage(), e);
+            throw new RuntimeException("Error processing file: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            stage.cancel();
+            throw e;
+        } finally {
+            metrics.set("translationService", GoogleTranslateAPI.getMetrics());
+            metrics.set("namesTranslated", translator.getNameCount());
+            metrics.set("namesAnsweredOffline", translator.getOfflineCount());
+            RunReports.finish(metrics);
+        }
+        return written[0];
+    }
+    
+    /**
+     * Process VCF file into a table of contacts for duplicate detection. Contacts that
+     * need no changes stay in the file and are only referenced by byte range, as long
+     * as the provider offers a seekable descriptor; the caller must close the table.
+     */
+    public static ContactTable processVCFForDuplicates(ContentResolver contentResolver, Uri fileUri, ProgressListener listener) {
+        RunMetrics metrics = RunReports.begin("duplicates");
+        LatencyHistogram parseTimes = metrics.stage(RunMetrics.PARSE);
+        ContactTable table = new ContactTable();
+        table.setSource(openSource(contentResolver, fileUri));
+        try {
+            streamContactRanges(contentResolver, fileUri, listener, (contact, offset, length) -> {
+                // Process without translation for duplicate detection
+                long start = System.nanoTime();
+                String processed = processContact(contact, listener, null);
+                parseTimes.recordSince(start);
+                if (processed == contact && offset >= 0) {
+                    table.add(processed, offset, length);
+                } else {
+                    // A name was added, so the file no longer holds this contact as it will be saved
+                    table.add(processed);
+                }
+            });
+            table.trimToSize();
+            metrics.add(RunMetrics.CONTACTS, table.size());
+            Log.d(TAG, "Finished processing file for duplicates. Total contacts: " + table.size());
             
-            // Second pass: process contacts
-            InputStream inputStream = contentResolver.openInputStream(fileUri);
-            if (inputStream == null) {
-                Log.e(TAG, "Failed to open input stream");
-                throw new IOException("Failed to open the selected file");
-            }
+            // Find duplicate contacts
+            long start = System.nanoTime();
+            findDuplicates(table.asList());
+            metrics.stage(RunMetrics.DEDUP).recordSince(start);
+            
+        } catch (IOException e) {
+            closeQuietly(table);
+            Log.e(TAG, "Error processing VCF file: " + e.getMessage(), e);
+            throw new RuntimeException("Error processing file: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            closeQuietly(table);
+            throw e;
+        } finally {
+            RunReports.finish(metrics);
+        }
+        return table;
+    }
+
+    /**
+     * Reads the file once, handing every complete vCard to the consumer as soon as
+     * its END:VCARD line is seen. Progress is reported from the bytes consumed so
+     * far against the size published by the provider, so no counting pass is needed.
+     *
+     * @return the number of contacts read
+     */
+    public static int streamContacts(ContentResolver contentResolver, Uri fileUri, ProgressListener listener,
+                                     ContactConsumer consumer) throws IOException {
+        return streamContactRanges(contentResolver, fileUri, listener,
+                (contact, offset, length) -> consumer.accept(contact));
+    }
+
+    /**
+     * {@link #streamContacts} that also reports where each vCard lies in the file,
+     * from its BEGIN:VCARD line up to and including the line break after END:VCARD
+     */
+    static int streamContactRanges(ContentResolver contentResolver, Uri fileUri, ProgressListener listener,
+                                   ContactRangeConsumer consumer) throws IOException {
+        long totalBytes = queryFileSize(contentResolver, fileUri);
+
+        InputStream inputStream = contentResolver.openInputStream(fileUri);
+        if (inputStream == null) {
+            Log.e(TAG, "Failed to open input stream");
+            throw new IOException("Failed to open the selected file");
+        }
 
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+        int contactCount = 0;
+        try (LineReader reader = new LineReader(inputStream)) {
             StringBuilder contact = new StringBuilder();
             String line;
             boolean inContact = false;
-            int contactCount = 0;
+            long contactStart = 0;
             String currentName = "";
 
             while ((line = reader.readLine()) != null) {
+                // A leading space or tab marks a folded continuation line, which must keep it
+                boolean continuation = inContact && !line.isEmpty()
+                        && (line.charAt(0) == ' ' || line.charAt(0) == '\t');
+
                 // Trim the line to handle any extra whitespace
-                line = line.trim();
-                
+                line = continuation ? trimTrailing(line) : line.trim();
+
                 if (line.startsWith("BEGIN:VCARD")) {
-                    contact = new StringBuilder();
+                    contact.setLength(0);
                     inContact = true;
+                    contactStart = reader.getLineStart();
                     contactCount++;
                     currentName = "Contact #" + contactCount;
                     if (listener != null) {
-                        listener.onProgressUpdate(contactCount, totalContacts, currentName);
+                        listener.onProgressUpdate(contactCount, reader.position(), totalBytes, currentName);
                     }
-                    Log.d(TAG, "Processing contact #" + contactCount + " of " + totalContacts);
                 }
 
                 if (inContact) {
                     contact.append(line).append("\n");
-                    
+
                     // Try to extract name as soon as we see it for better progress reporting
                     if (line.startsWith("FN:")) {
                         currentName = line.substring(3).trim();
                         if (listener != null) {
-                            listener.onProgressUpdate(contactCount, totalContacts, currentName);
+                            listener.onProgressUpdate(contactCount, reader.position(), totalBytes, currentName);
                         }
                     } else if (line.startsWith("N:") && currentName.equals("Contact #" + contactCount)) {
                         // Only use N if we haven't found FN yet
@@ -74,326 +274,390 @@ public class VCardProcessor {
                                 currentName += " " + nameParts[0].trim();
                             }
                             if (listener != null) {
-                                listener.onProgressUpdate(contactCount, totalContacts, currentName);
+                                listener.onProgressUpdate(contactCount, reader.position(), totalBytes, currentName);
                             }
                         }
                     }
                 }
 
-                if (line.startsWith("END:VCARD")) {
-                    String contactStr = contact.toString();
-                    // Process with translation enabled
-                    String processed = processContact(contactStr, listener, true);
-                    processedContacts.add(processed);
+                if (line.startsWith("END:VCARD") && inContact) {
+                    long offset = reader.isLineTerminated() ? contactStart : -1;
+                    consumer.accept(contact.toString(), offset, (int) (reader.position() - contactStart));
                     inContact = false;
                 }
             }
-            reader.close();
-            
-            Log.d(TAG, "Finished processing file. Total contacts: " + processedContacts.size());
-        } catch (IOException e) {
-            Log.e(TAG, "Error processing VCF file: " + e.getMessage(), e);
-            throw new RuntimeException("Error processing file: " + e.getMessage(), e);
         }
-        return processedContacts;
+
+        if (contactCount == 0) {
+            throw new IOException("No valid contacts found in the file. Please check if it's a valid VCF file.");
+        }
+        return contactCount;
     }
     
     /**
-     * Process VCF file and return a list of ContactModel objects for duplicate detection
+     * Translate the names of a chunk of contacts with batched requests, then process
+     * each contact in input order using the prefetched translations. Contacts found
+     * in the cache are neither parsed nor translated.
+     *
+     * @param cache results of earlier runs, or null
+     * @param retry while it allows, contacts whose names could only be guessed because the
+     *              service was unavailable are left as null to be retried; null to keep guesses
      */
-    public static List<ContactModel> processVCFForDuplicates(ContentResolver contentResolver, Uri fileUri, ProgressListener listener) {
-        List<ContactModel> contacts = new ArrayList<>();
-        try {
-            // First pass: count total contacts for progress reporting
-            int totalContacts = countContacts(contentResolver, fileUri);
-            if (totalContacts == 0) {
-                throw new IOException("No valid contacts found in the file. Please check if it's a valid VCF file.");
+    private static List<String> processChunk(List<String> chunk, ProgressListener listener, NameTranslator translator,
+                                             ProcessedContactCache cache, String variant, RetryBudget retry) {
+        RunMetrics metrics = RunMetrics.current();
+        LatencyHistogram parseTimes = metrics.stage(RunMetrics.PARSE);
+        String[] results = new String[chunk.size()];
+        String[] keys = new String[chunk.size()];
+        NameTranslator.Batch batch = translator.newBatch();
+        VCardRecord[] records = new VCardRecord[chunk.size()];
+        int cacheHits = 0;
+        for (int i = 0; i < records.length; i++) {
+            if (cache != null) {
+                keys[i] = ProcessedContactCache.key(chunk.get(i), variant);
+                results[i] = cache.get(keys[i]);
+                if (results[i] != null) {
+                    cacheHits++;
+                    continue;
+                }
             }
-            
-            // Second pass: process contacts
-            InputStream inputStream = contentResolver.openInputStream(fileUri);
-            if (inputStream == null) {
-                Log.e(TAG, "Failed to open input stream");
-                throw new IOException("Failed to open the selected file");
+            long start = System.nanoTime();
+            VCardRecord record = VCardParser.parse(chunk.get(i));
+            parseTimes.recordSince(start);
+            records[i] = record;
+            String name = ContactNameProcessor.findName(record);
+            if (name == null || ContactNameProcessor.containsBothLanguages(name)) {
+                continue;
             }
+            if (isHindi(name)) {
+                batch.add(name, record.getStructuredName(), "hi", "en");
+            } else {
+                batch.add(name, record.getStructuredName(), "en", "hi");
+            }
+        }
+        if (cache != null) {
+            metrics.add(RunMetrics.PROCESSED_CACHE_HITS, cacheHits);
+            metrics.add(RunMetrics.PROCESSED_CACHE_MISSES, records.length - cacheHits);
+        }
+        long start = System.nanoTime();
+        batch.translate();
+        metrics.stage(RunMetrics.TRANSLATE).recordSince(start);
+        // Names guessed offline while the service is failing fast get another chance later
+        boolean deferGuesses = retry != null && !retry.isExhausted() && !translator.isRemoteAvailable();
 
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-            StringBuilder contact = new StringBuilder();
-            String line;
-            boolean inContact = false;
-            int contactCount = 0;
-            String currentName = "";
-
-            while ((line = reader.readLine()) != null) {
-                // Trim the line to handle any extra whitespace
-                line = line.trim();
-                
-                if (line.startsWith("BEGIN:VCARD")) {
-                    contact = new StringBuilder();
-                    inContact = true;
-                    contactCount++;
-                    currentName = "Contact #" + contactCount;
-                    if (listener != null) {
-                        listener.onProgressUpdate(contactCount, totalContacts, currentName);
-                    }
+        List<String> processedContacts = new ArrayList<>(chunk.size());
+        for (int i = 0; i < records.length; i++) {
+            if (results[i] == null) {
+                boolean guessed = isGuessed(records[i], translator);
+                if (guessed && deferGuesses) {
+                    processedContacts.add(null);
+                    continue;
                 }
-
-                if (inContact) {
-                    contact.append(line).append("\n");
-                    
-                    // Try to extract name as soon as we see it for better progress reporting
-                    if (line.startsWith("FN:")) {
-                        currentName = line.substring(3).trim();
-                        if (listener != null) {
-                            listener.onProgressUpdate(contactCount, totalContacts, currentName);
-                        }
-                    } else if (line.startsWith("N:") && currentName.equals("Contact #" + contactCount)) {
-                        // Only use N if we haven't found FN yet
-                        String[] nameParts = line.substring(2).trim().split(";");
-                        if (nameParts.length > 1 && !nameParts[1].isEmpty()) {
-                            // Use first name if available
-                            currentName = nameParts[1].trim();
-                            if (!nameParts[0].isEmpty()) {
-                                // Add last name if available
-                                currentName += " " + nameParts[0].trim();
-                            }
-                            if (listener != null) {
-                                listener.onProgressUpdate(contactCount, totalContacts, currentName);
-                            }
-                        }
-                    }
+                results[i] = processContact(chunk.get(i), records[i], listener, translator);
+                // Tokens the batch left out may have been guessed while processing
+                guessed = guessed || isGuessed(records[i], translator);
+                if (cache != null && !guessed && isFullyTranslated(chunk.get(i), results[i])) {
+                    cache.put(keys[i], results[i]);
                 }
+            }
+            processedContacts.add(results[i]);
+        }
+        return processedContacts;
+    }
 
-                if (line.startsWith("END:VCARD")) {
-                    String contactStr = contact.toString();
-                    // Process without translation for duplicate detection
-                    String processed = processContact(contactStr, listener, false);
-                    ContactModel contactModel = new ContactModel(processed);
-                    contacts.add(contactModel);
-                    inContact = false;
-                }
+    /**
+     * Second pass over the contacts of a chunk held back while the translation service
+     * was unavailable, just before the chunk is written. Waits for the service within
+     * the run's budget, then translates them with fresh lookups and puts the results
+     * back in their slots; names that still fail keep their offline guess.
+     */
+    private static List<String> retryDeferred(List<String> chunk, List<String> processed, ProgressListener listener,
+                                              NameTranslator translator, ProcessedContactCache cache, String variant,
+                                              RetryBudget retry) throws IOException {
+        List<Integer> slots = new ArrayList<>();
+        List<String> deferred = new ArrayList<>();
+        for (int i = 0; i < processed.size(); i++) {
+            if (processed.get(i) == null) {
+                slots.add(i);
+                deferred.add(chunk.get(i));
             }
-            reader.close();
-            
-            Log.d(TAG, "Finished processing file for duplicates. Total contacts: " + contacts.size());
-            
-            // Find duplicate contacts
-            findDuplicates(contacts);
-            
-        } catch (IOException e) {
-            Log.e(TAG, "Error processing VCF file: " + e.getMessage(), e);
-            throw new RuntimeException("Error processing file: " + e.getMessage(), e);
+        }
+        boolean available = retry.awaitService(translator);
+        Log.d(TAG, "Retrying " + deferred.size() + " contacts translated while the service was unavailable"
+                + (available ? "" : ", service still unavailable"));
+        if (available) {
+            translator.forgetGuesses();
+        }
+
+        List<String> retried = processChunk(deferred, listener, translator, cache, variant, null);
+        List<String> contacts = new ArrayList<>(processed);
+        for (int i = 0; i < slots.size(); i++) {
+            contacts.set(slots.get(i), retried.get(i));
         }
         return contacts;
     }
-    
+
     /**
-     * Find duplicate contacts in the list
+     * How long one run may still wait for an unavailable translation service. Only the
+     * thread writing the output waits; once the budget is used up, contacts are no
+     * longer held back and keep their offline guesses.
      */
-    private static void findDuplicates(List<ContactModel> contacts) {
-        for (int i = 0; i < contacts.size(); i++) {
-            ContactModel contact1 = contacts.get(i);
-            
-            for (int j = i + 1; j < contacts.size(); j++) {
-                ContactModel contact2 = contacts.get(j);
-                
-                if (contact1.isPotentialDuplicate(contact2)) {
-                    contact1.addDuplicate(contact2);
+    private static class RetryBudget {
+        private volatile boolean exhausted;
+        // Written only by the output thread
+        private long waitLeftMs = RETRY_MAX_WAIT_MS;
+
+        boolean isExhausted() {
+            return exhausted;
+        }
+
+        /**
+         * Wait until the service accepts requests or the budget runs out
+         *
+         * @return whether the service is available
+         */
+        boolean awaitService(NameTranslator translator) throws InterruptedIOException {
+            while (!translator.isRemoteAvailable() && waitLeftMs > 0) {
+                long start = System.currentTimeMillis();
+                try {
+                    Thread.sleep(Math.min(RETRY_POLL_MS, waitLeftMs));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the translation service");
                 }
+                waitLeftMs -= Math.max(1, System.currentTimeMillis() - start);
             }
+            if (translator.isRemoteAvailable()) {
+                return true;
+            }
+            exhausted = true;
+            return false;
+        }
+    }
+
+    // Only results that carry both languages are worth keeping; a failed translation is retried next run
+    private static boolean isFullyTranslated(String contact, String processed) {
+        return processed != contact
+                && ContactNameProcessor.containsBothLanguages(VCardParser.parse(processed).getFormattedName());
+    }
+
+    // Offline guesses stand in for failed requests and are not cached, so a later online run can do better
+    private static boolean isGuessed(VCardRecord record, NameTranslator translator) {
+        String name = ContactNameProcessor.findName(record);
+        if (name == null) {
+            return false;
         }
+        return ContactNameProcessor.isHindi(name)
+                ? translator.isGuessed(name, record.getStructuredName(), "hi", "en")
+                : translator.isGuessed(name, record.getStructuredName(), "en", "hi");
+    }
+
+    /**
+     * Find duplicate contacts in the list
+     */
+    private static void findDuplicates(List<ContactModel> contacts) {
+        DuplicateDetector.linkDuplicates(contacts);
     }
     
-    // Count total contacts in the file for progress reporting
-    private static int countContacts(ContentResolver contentResolver, Uri fileUri) throws IOException {
-        int count = 0;
-        InputStream inputStream = contentResolver.openInputStream(fileUri);
-        if (inputStream == null) {
-            return 0;
+    private static String trimTrailing(String line) {
+        int end = line.length();
+        while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
         }
-        
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().startsWith("BEGIN:VCARD")) {
-                    count++;
+        return line.substring(0, end);
+    }
+
+    // Size of the file as published by the provider, or -1 if it is not known
+    private static long queryFileSize(ContentResolver contentResolver, Uri fileUri) {
+        if (!"content".equals(fileUri.getScheme())) {
+            String path = fileUri.getPath();
+            return path != null && new File(path).isFile() ? new File(path).length() : -1;
+        }
+        try (Cursor cursor = contentResolver.query(fileUri, new String[]{OpenableColumns.SIZE}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                int sizeIndex = cursor.getColumnIndex(OpenableColumns.SIZE);
+                if (sizeIndex >= 0 && !cursor.isNull(sizeIndex)) {
+                    return cursor.getLong(sizeIndex);
                 }
             }
+        } catch (Exception e) {
+            Log.w(TAG, "Could not query file size: " + e.getMessage());
         }
-        return count;
+        return -1;
     }
 
-    private static String processContact(String contact, ProgressListener listener, boolean translate) {
-        Log.d(TAG, "Processing contact: " + contact);
-        
-        // Extract the FN (Full Name) field
-        Pattern fnPattern = Pattern.compile("FN:(.*?)(?:\\r?\\n)");
-        Matcher matcher = fnPattern.matcher(contact);
-        
-        if (!matcher.find()) {
-            Log.d(TAG, "No FN field found in contact, trying to find N field");
-            
-            // If FN is not found, try to extract from N field
-            Pattern nPattern = Pattern.compile("N:(.*?)(?:\\r?\\n)");
-            Matcher nMatcher = nPattern.matcher(contact);
-            
-            if (nMatcher.find()) {
-                // Found N field, create FN field
-                String nValue = nMatcher.group(1);
-                String[] nameParts = nValue.split(";");
-                
-                // Typically N format is: last;first;middle;prefix;suffix
-                StringBuilder nameBuilder = new StringBuilder();
-                
-                // Add prefix if exists
-                if (nameParts.length > 3 && !nameParts[3].isEmpty()) {
-                    nameBuilder.append(nameParts[3]).append(" ");
-                }
-                
-                // Add first name if exists
-                if (nameParts.length > 1 && !nameParts[1].isEmpty()) {
-                    nameBuilder.append(nameParts[1]).append(" ");
+    // Seekable view of the file for ContactTable, or null if the provider only offers a stream
+    private static VCardSource openSource(ContentResolver contentResolver, Uri fileUri) {
+        ParcelFileDescriptor descriptor = null;
+        try {
+            descriptor = contentResolver.openFileDescriptor(fileUri, "r");
+            if (descriptor == null || descriptor.getStatSize() < 0) {
+                // A pipe or socket, byte ranges cannot be read back later
+                closeQuietly(descriptor);
+                return null;
+            }
+            FileChannel channel = new ParcelFileDescriptor.AutoCloseInputStream(descriptor).getChannel();
+            return new FileChannelVCardSource(channel, null);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Could not open the file for random access: " + e.getMessage());
+            closeQuietly(descriptor);
+            return null;
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Error closing " + closeable + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads UTF-8 lines while tracking the byte offset of each one, which a
+     * BufferedReader cannot report. Accepts \n, \r\n and \r line breaks and skips
+     * a byte order mark at the start of the file.
+     */
+    private static class LineReader implements Closeable {
+        private final InputStream in;
+        private final byte[] buffer = new byte[64 * 1024];
+        private int pos;
+        private int limit;
+        // File offset of buffer[0]
+        private long bufferStart;
+        private long lineStart;
+        private boolean lineTerminated;
+        private byte[] line = new byte[256];
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * @return the next line without its line break, or null at the end of the file
+         */
+        String readLine() throws IOException {
+            if (bufferStart == 0 && pos == 0 && fill() && limit >= 3
+                    && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF) {
+                pos = 3;
+            }
+            lineStart = position();
+            lineTerminated = true;
+            int length = 0;
+            while (true) {
+                if (pos == limit && !fill()) {
+                    lineTerminated = false;
+                    return position() == lineStart ? null : decode(length);
                 }
-                
-                // Add middle name if exists
-                if (nameParts.length > 2 && !nameParts[2].isEmpty()) {
-                    nameBuilder.append(nameParts[2]).append(" ");
+                byte b = buffer[pos++];
+                if (b == '\n') {
+                    return decode(length);
                 }
-                
-                // Add last name if exists
-                if (!nameParts[0].isEmpty()) {
-                    nameBuilder.append(nameParts[0]);
+                if (b == '\r') {
+                    // \r\n counts as one line break
+                    if ((pos < limit || fill()) && buffer[pos] == '\n') {
+                        pos++;
+                    }
+                    return decode(length);
                 }
-                
-                String constructedName = nameBuilder.toString().trim();
-                
-                if (!constructedName.isEmpty()) {
-                    // Add FN field to the contact
-                    contact = "FN:" + constructedName + "\n" + contact;
-                    Log.d(TAG, "Created FN field from N field: " + constructedName);
-                    
-                    // Update matcher to use the newly created FN field
-                    matcher = fnPattern.matcher(contact);
-                    matcher.find();
-                } else {
-                    Log.d(TAG, "Could not construct name from N field");
-                    return contact; // Return unchanged if we can't create a name
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
                 }
-            } else {
-                Log.d(TAG, "No name fields found in contact");
-                return contact; // Return unchanged if no name fields found
+                line[length++] = b;
             }
         }
 
-        String originalName = matcher.group(1);
-        Log.d(TAG, "Original name: " + originalName);
-        
-        // Check if the name already contains both English and Hindi translations
-        if (containsBothLanguages(originalName)) {
-            Log.d(TAG, "Name already contains both languages: " + originalName);
-            
-            // Notify listener about the already processed name
-            if (listener != null) {
-                listener.onNameProcessed(originalName, originalName);
-            }
-            
-            // Return unchanged
-            return contact;
+        /**
+         * False if the line last returned was ended by the end of the file rather than a line break
+         */
+        boolean isLineTerminated() {
+            return lineTerminated;
         }
-        
-        if (!translate) {
-            return contact;
+
+        /**
+         * Offset of the first byte of the line last returned by {@link #readLine}
+         */
+        long getLineStart() {
+            return lineStart;
         }
-        
-        String englishName, hindiName;
 
-        try {
-            if (isHindi(originalName)) {
-                hindiName = originalName;
-                Log.d(TAG, "Detected Hindi name, translating to English");
-                englishName = GoogleTranslateAPI.translate(hindiName, "hi", "en");
-                
-                // Fallback if translation fails
-                if (englishName == null || englishName.equals(hindiName)) {
-                    Log.d(TAG, "Translation failed or returned same text, using original name");
-                    englishName = hindiName;
-                }
-            } else {
-                englishName = originalName;
-                Log.d(TAG, "Detected English/other name, translating to Hindi");
-                hindiName = GoogleTranslateAPI.translate(englishName, "en", "hi");
-                
-                // Fallback if translation fails
-                if (hindiName == null || hindiName.equals(englishName)) {
-                    Log.d(TAG, "Translation failed or returned same text, using original name");
-                    hindiName = englishName;
-                }
-            }
+        /**
+         * Number of bytes consumed so far, i.e. the offset just after the last line break read
+         */
+        long position() {
+            return bufferStart + pos;
+        }
 
-            Log.d(TAG, "English name: " + englishName + ", Hindi name: " + hindiName);
-            String newName = englishName + " (" + hindiName + ")";
-            Log.d(TAG, "New name: " + newName);
-            
-            // Notify listener about the processed name
-            if (listener != null) {
-                listener.onNameProcessed(originalName, newName);
+        // Refills the buffer once it is used up; false at the end of the stream
+        private boolean fill() throws IOException {
+            if (pos < limit) {
+                return true;
             }
-            
-            // Replace the FN field with the new name
-            String updatedContact = contact.replaceFirst("FN:.*?(\\r?\\n)", "FN:" + newName + "$1");
-            Log.d(TAG, "Updated contact with translated name: " + newName);
-            return updatedContact;
+            bufferStart += limit;
+            pos = 0;
+            limit = 0;
+            int n;
+            long start = System.nanoTime();
+            do {
+                n = in.read(buffer);
+            } while (n == 0);
+            RunMetrics metrics = RunMetrics.current();
+            metrics.stage(RunMetrics.READ).recordSince(start);
+            if (n < 0) {
+                return false;
+            }
+            metrics.add(RunMetrics.BYTES_READ, n);
+            limit = n;
+            return true;
+        }
+
+        private String decode(int length) {
+            return new String(line, 0, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * @param translator translator for the current run, or null to leave names untranslated
+     */
+    private static String processContact(String contact, ProgressListener listener, NameTranslator translator) {
+        return processContact(contact, VCardParser.parse(contact), listener, translator);
+    }
+
+    /**
+     * @param record the parsed fields of {@code contact}
+     */
+    private static String processContact(String contact, VCardRecord record, ProgressListener listener,
+                                         NameTranslator translator) {
+        DebugLog.d(TAG, "Processing contact: {}", contact);
+        try {
+            return ContactNameProcessor.process(contact, record, listener, translator);
         } catch (Exception e) {
             Log.e(TAG, "Error during translation: " + e.getMessage(), e);
             return contact; // Return unchanged if translation fails
         }
     }
 
+    private static NameTranslator newNameTranslator() {
+        return new NameTranslator(tokenTranslation, new OfflineTransliterator(), remoteTranslator);
+    }
+
     // Overloaded method for backward compatibility
     private static String processContact(String contact, ProgressListener listener) {
         // Call the new method with translation enabled
-        return processContact(contact, listener, true);
-    }
-
-    /**
-     * Checks if the text contains both English and Hindi languages
-     * Common patterns: "English (Hindi)" or "Hindi (English)"
-     */
-    private static boolean containsBothLanguages(String text) {
-        if (text == null || text.isEmpty()) {
-            return false;
-        }
-        
-        // Check for parentheses pattern which often indicates dual-language names
-        if (text.contains("(") && text.contains(")")) {
-            // Check if there are Hindi characters inside or outside the parentheses
-            String outsideParentheses = text.replaceAll("\\(.*?\\)", "").trim();
-            
-            // Extract content inside parentheses
-            Pattern pattern = Pattern.compile("\\((.*?)\\)");
-            Matcher matcher = pattern.matcher(text);
-            if (matcher.find()) {
-                String insideParentheses = matcher.group(1).trim();
-                
-                boolean outsideHasHindi = outsideParentheses.matches(".*[\\u0900-\\u097F]+.*");
-                boolean insideHasHindi = insideParentheses.matches(".*[\\u0900-\\u097F]+.*");
-                
-                // If one part has Hindi and the other doesn't, it likely contains both languages
-                return (outsideHasHindi && !insideHasHindi) || (!outsideHasHindi && insideHasHindi);
-            }
-        }
-        
-        return false;
+        return processContact(contact, listener, newNameTranslator());
     }
 
     private static boolean isHindi(String text) {
-        if (text == null || text.isEmpty()) {
-            return false;
-        }
-        
-        // Check if the text contains Hindi Unicode characters (0900-097F)
-        boolean isHindi = text.matches(".*[\\u0900-\\u097F]+.*");
-        Log.d(TAG, "Is Hindi check for '" + text + "': " + isHindi);
+        boolean isHindi = ContactNameProcessor.isHindi(text);
+        DebugLog.d(TAG, "Is Hindi check for '{}': {}", text, isHindi);
         return isHindi;
     }
-}
\ No newline at end of file
+}
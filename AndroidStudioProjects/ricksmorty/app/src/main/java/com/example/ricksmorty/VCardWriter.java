@@ -0,0 +1,199 @@
+package com.example.ricksmorty;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Environment;
+import android.os.ParcelFileDescriptor;
+import android.provider.MediaStore;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes vCards to a new file in Downloads one contact at a time, encoding each
+ * straight into a buffered UTF-8 stream so the file is never held in memory.
+ * Contacts still kept in their source file are copied over by byte range with
+ * {@link FileChannel#transferTo}, consecutive ones in a single transfer.
+ * The file only becomes visible once {@link #commit()} succeeds; closing an
+ * uncommitted writer deletes the partial file.
+ */
+class VCardWriter implements VCardProcessor.ContactConsumer, Closeable {
+    private static final String TAG = "VCardWriter";
+    private static final String MIME_TYPE = "text/x-vcard";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ContentResolver resolver;
+    private final Uri uri;
+    private final File file;
+    private final String path;
+    private final OutputStream out;
+    private final FileChannel channel;
+    // Source bytes [runStart, runEnd) of runTable still to be copied
+    private ContactTable runTable;
+    private long runStart;
+    private long runEnd;
+    private int contactCount;
+    private boolean committed;
+    private boolean closed;
+
+    private VCardWriter(ContentResolver resolver, Uri uri, File file, String path, FileOutputStream fileOut) {
+        this.resolver = resolver;
+        this.uri = uri;
+        this.file = file;
+        this.path = path;
+        this.out = new BufferedOutputStream(fileOut, BUFFER_SIZE);
+        this.channel = fileOut.getChannel();
+    }
+
+    /**
+     * Create {@code fileName} in the public Downloads directory and open it for writing
+     */
+    static VCardWriter createInDownloads(Context context, String fileName) throws IOException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            // For Android 10 (API 29) and above, use MediaStore
+            ContentValues values = new ContentValues();
+            values.put(MediaStore.Downloads.DISPLAY_NAME, fileName);
+            values.put(MediaStore.Downloads.MIME_TYPE, MIME_TYPE);
+            values.put(MediaStore.Downloads.IS_PENDING, 1);
+
+            ContentResolver resolver = context.getContentResolver();
+            Uri uri = resolver.insert(MediaStore.Downloads.EXTERNAL_CONTENT_URI, values);
+            if (uri == null) {
+                throw new IOException("Failed to create file in Downloads");
+            }
+
+            // A descriptor rather than openOutputStream, so source ranges can be transferred into it
+            ParcelFileDescriptor descriptor = resolver.openFileDescriptor(uri, "w");
+            if (descriptor == null) {
+                resolver.delete(uri, null, null);
+                throw new IOException("Failed to open file in Downloads");
+            }
+            return new VCardWriter(resolver, uri, null, "Downloads/" + fileName,
+                    new ParcelFileDescriptor.AutoCloseOutputStream(descriptor));
+        }
+
+        // For older Android versions
+        File downloadsDir = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
+        if (!downloadsDir.exists()) {
+            if (!downloadsDir.mkdirs()) {
+                throw new IOException("Failed to create Downloads directory");
+            }
+        }
+
+        File outputFile = new File(downloadsDir, fileName);
+        return new VCardWriter(null, Uri.fromFile(outputFile), outputFile, outputFile.getAbsolutePath(),
+                new FileOutputStream(outputFile));
+    }
+
+    @Override
+    public void accept(String contact) throws IOException {
+        long start = System.nanoTime();
+        flushRun();
+        byte[] bytes = contact.getBytes(StandardCharsets.UTF_8);
+        out.write(bytes);
+        contactCount++;
+        recordWrite(start, bytes.length);
+    }
+
+    /**
+     * Write a contact of a {@link ContactTable}, copying it straight from the source
+     * file if it is still kept there
+     */
+    void write(ContactModel contact) throws IOException {
+        long start = System.nanoTime();
+        ContactTable table = contact.getTable();
+        int row = contact.getRow();
+        if (table.isInSource(row)) {
+            long offset = table.getSourceOffset(row);
+            if (table != runTable || offset != runEnd) {
+                flushRun();
+                runTable = table;
+                runStart = offset;
+                runEnd = offset;
+            }
+            runEnd += table.getRawSize(row);
+        } else {
+            flushRun();
+            table.writeRow(row, out);
+        }
+        contactCount++;
+        recordWrite(start, table.getRawSize(row));
+    }
+
+    // A pending run of source bytes is copied, and timed, by the write after it
+    private static void recordWrite(long startNanos, int bytes) {
+        RunMetrics metrics = RunMetrics.current();
+        metrics.stage(RunMetrics.WRITE).recordSince(startNanos);
+        metrics.add(RunMetrics.BYTES_WRITTEN, bytes);
+    }
+
+    // Copy the pending run of source bytes, after whatever is still buffered
+    private void flushRun() throws IOException {
+        if (runTable == null) {
+            return;
+        }
+        out.flush();
+        runTable.getSource().transferTo(runStart, runEnd - runStart, channel);
+        runTable = null;
+    }
+
+    /**
+     * Flush the remaining output and publish the file
+     */
+    void commit() throws IOException {
+        flushRun();
+        closed = true;
+        out.close();
+        if (resolver != null) {
+            ContentValues values = new ContentValues();
+            values.put(MediaStore.Downloads.IS_PENDING, 0);
+            resolver.update(uri, values, null, null);
+        }
+        committed = true;
+    }
+
+    /**
+     * Discards the file unless it was committed
+     */
+    @Override
+    public void close() {
+        if (committed) {
+            return;
+        }
+        if (!closed) {
+            closed = true;
+            try {
+                out.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Error closing partial file: " + e.getMessage());
+            }
+        }
+        if (resolver != null) {
+            resolver.delete(uri, null, null);
+        } else if (file != null && !file.delete()) {
+            Log.w(TAG, "Could not delete partial file " + path);
+        }
+    }
+
+    int getContactCount() {
+        return contactCount;
+    }
+
+    Uri getUri() {
+        return uri;
+    }
+
+    String getPath() {
+        return path;
+    }
+}
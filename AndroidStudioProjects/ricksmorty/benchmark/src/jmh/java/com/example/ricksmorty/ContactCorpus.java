@@ -0,0 +1,120 @@
+package com.example.ricksmorty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible synthetic address books shaped like real phone exports:
+ * English and Hindi names, a few contacts without FN, folded lines and a share of
+ * duplicates that reuse a phone number or email from an earlier contact.
+ */
+final class ContactCorpus {
+    private static final String[] FIRST_NAMES = {
+            "Rahul", "Priya", "Amit", "Sunita", "Vikram", "Anjali", "Rohan", "Kavita",
+            "Arjun", "Neha", "Sanjay", "Pooja", "Rajesh", "Meera", "Karan", "Divya"
+    };
+    private static final String[] LAST_NAMES = {
+            "Sharma", "Verma", "Gupta", "Singh", "Patel", "Kumar", "Reddy", "Iyer",
+            "Joshi", "Mehta", "Nair", "Chopra", "Malhotra", "Bose", "Das", "Rao"
+    };
+    private static final String[] HINDI_NAMES = {
+            "राहुल शर्मा", "प्रिया वर्मा", "अमित गुप्ता", "सुनीता सिंह",
+            "विक्रम पटेल", "अंजलि कुमार", "रोहन रेड्डी", "कविता जोशी"
+    };
+
+    // Syllables for made-up surnames that no dictionary or cache knows
+    private static final String[] SYLLABLES = {
+            "ka", "ra", "ma", "ni", "shi", "de", "van", "dra", "la", "pu", "go", "bha", "ti", "sen"
+    };
+
+    // Roughly one contact in eight reuses a phone or email of an earlier one
+    private static final int DUPLICATE_ONE_IN = 8;
+
+    private ContactCorpus() {
+    }
+
+    static List<String> generate(int count, long seed) {
+        return generate(count, seed, false);
+    }
+
+    /**
+     * @param rareSurnames give every English contact a made-up surname instead of a
+     *                     common one, so most names need a real translation request
+     */
+    static List<String> generate(int count, long seed, boolean rareSurnames) {
+        Random random = new Random(seed);
+        List<String> contacts = new ArrayList<>(count);
+        List<String> phones = new ArrayList<>(count);
+        List<String> emails = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = rareSurnames ? rareSurname(random) : LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+
+            String phone;
+            String email;
+            if (i > 0 && random.nextInt(DUPLICATE_ONE_IN) == 0) {
+                int earlier = random.nextInt(i);
+                phone = random.nextBoolean() ? formatWithCountryCode(phones.get(earlier)) : randomPhone(random);
+                email = emails.get(earlier);
+            } else {
+                phone = randomPhone(random);
+                email = first.toLowerCase() + "." + last.toLowerCase() + i + "@example.com";
+            }
+            phones.add(phone);
+            emails.add(email);
+
+            StringBuilder card = new StringBuilder(256);
+            card.append("BEGIN:VCARD\n").append("VERSION:3.0\n");
+            card.append("N:").append(last).append(';').append(first).append(";;;\n");
+            switch (random.nextInt(10)) {
+                case 0:
+                    // No FN: the processor has to build one from N
+                    break;
+                case 1:
+                case 2:
+                    card.append("FN:").append(HINDI_NAMES[random.nextInt(HINDI_NAMES.length)]).append('\n');
+                    break;
+                case 3:
+                    // Already bilingual, left untouched
+                    card.append("FN:").append(first).append(' ').append(last).append(" (")
+                            .append(HINDI_NAMES[random.nextInt(HINDI_NAMES.length)]).append(")\n");
+                    break;
+                default:
+                    card.append("FN:").append(first).append(' ').append(last).append('\n');
+                    break;
+            }
+            card.append("TEL;TYPE=CELL:").append(phone).append('\n');
+            if (random.nextInt(4) == 0) {
+                card.append("TEL;TYPE=HOME:").append(randomPhone(random)).append('\n');
+            }
+            card.append("EMAIL;TYPE=INTERNET:").append(email).append('\n');
+            if (random.nextInt(5) == 0) {
+                card.append("NOTE:Met at the conference in Bengaluru and agreed to follow up on the\n")
+                        .append("  proposal next quarter\n");
+            }
+            card.append("END:VCARD\n");
+            contacts.add(card.toString());
+        }
+        return contacts;
+    }
+
+    private static String rareSurname(Random random) {
+        StringBuilder surname = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            surname.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        surname.setCharAt(0, Character.toUpperCase(surname.charAt(0)));
+        return surname.toString();
+    }
+
+    private static String randomPhone(Random random) {
+        return "9" + String.format("%09d", random.nextInt(1_000_000_000));
+    }
+
+    private static String formatWithCountryCode(String phone) {
+        return "+91 " + phone.substring(0, 5) + " " + phone.substring(5);
+    }
+}
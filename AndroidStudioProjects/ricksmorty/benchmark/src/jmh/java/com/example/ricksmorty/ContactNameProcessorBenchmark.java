@@ -0,0 +1,59 @@
+package com.example.ricksmorty;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-file cost of parsing every contact and rewriting its FN line. The translator
+ * is an in-memory stub so only the local work is measured, not the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ContactNameProcessorBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int contactCount;
+
+    private List<String> contacts;
+
+    // Echoes the name back, the same shape of result as a translation miss
+    private final ContactNameProcessor.NameTranslation stubTranslation =
+            (fullName, nValue, sourceLang, targetLang) -> fullName;
+
+    @Setup
+    public void setUp() {
+        contacts = ContactCorpus.generate(contactCount, 42L);
+    }
+
+    @Benchmark
+    public void parseOnly(Blackhole blackhole) {
+        for (String contact : contacts) {
+            blackhole.consume(VCardParser.parse(contact));
+        }
+    }
+
+    @Benchmark
+    public void processWithoutTranslation(Blackhole blackhole) {
+        for (String contact : contacts) {
+            blackhole.consume(ContactNameProcessor.process(contact, VCardParser.parse(contact), null, null));
+        }
+    }
+
+    @Benchmark
+    public void processWithStubTranslation(Blackhole blackhole) {
+        for (String contact : contacts) {
+            blackhole.consume(ContactNameProcessor.process(contact, VCardParser.parse(contact), null,
+                    stubTranslation));
+        }
+    }
+}
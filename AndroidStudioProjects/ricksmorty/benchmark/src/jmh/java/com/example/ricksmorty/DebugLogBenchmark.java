@@ -0,0 +1,97 @@
+package com.example.ricksmorty;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processing a file with the per-contact debug messages of the pipeline (the whole
+ * vCard, then the language check of its name), logged the way the app used to and
+ * through {@link DebugLog} with debug messages on and off. The sink encodes each
+ * message to UTF-8 in place of the copy into the logcat buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DebugLogBenchmark {
+    private static final String TAG = "VCardProcessor";
+
+    @Param({"10000"})
+    public int contactCount;
+
+    private List<String> contacts;
+    private Blackhole sinkHole;
+
+    private final DebugLog.Sink sink = (level, tag, message) ->
+            sinkHole.consume(message.getBytes(StandardCharsets.UTF_8));
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        contacts = ContactCorpus.generate(contactCount, 42L);
+        sinkHole = blackhole;
+    }
+
+    @TearDown
+    public void tearDown() {
+        DebugLog.setSink(null, DebugLog.DEBUG);
+    }
+
+    @Benchmark
+    public void noLogging(Blackhole blackhole) {
+        for (String contact : contacts) {
+            String name = VCardParser.parse(contact).getFormattedName();
+            blackhole.consume(name != null && ContactNameProcessor.isHindi(name));
+            blackhole.consume(process(contact));
+        }
+    }
+
+    // String concatenation at every call, as with Log.d
+    @Benchmark
+    public void eagerMessages(Blackhole blackhole) {
+        for (String contact : contacts) {
+            sink.log(DebugLog.DEBUG, TAG, "Processing contact: " + contact);
+            String name = VCardParser.parse(contact).getFormattedName();
+            boolean isHindi = name != null && ContactNameProcessor.isHindi(name);
+            sink.log(DebugLog.DEBUG, TAG, "Is Hindi check for '" + name + "': " + isHindi);
+            blackhole.consume(process(contact));
+        }
+    }
+
+    @Benchmark
+    public void debugLogEnabled(Blackhole blackhole) {
+        DebugLog.setSink(sink, DebugLog.DEBUG);
+        logAndProcess(blackhole);
+    }
+
+    // A release build without minification
+    @Benchmark
+    public void debugLogDisabled(Blackhole blackhole) {
+        DebugLog.setSink(sink, DebugLog.WARN);
+        logAndProcess(blackhole);
+    }
+
+    private void logAndProcess(Blackhole blackhole) {
+        for (String contact : contacts) {
+            DebugLog.d(TAG, "Processing contact: {}", contact);
+            String name = VCardParser.parse(contact).getFormattedName();
+            boolean isHindi = name != null && ContactNameProcessor.isHindi(name);
+            DebugLog.d(TAG, "Is Hindi check for '{}': {}", name, isHindi);
+            blackhole.consume(process(contact));
+        }
+    }
+
+    private static String process(String contact) {
+        return ContactNameProcessor.process(contact, VCardParser.parse(contact), null, null);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ricksmorty;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of loading contacts into a {@link ContactTable} and finding duplicates among them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DuplicateDetectionBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int contactCount;
+
+    private List<String> contacts;
+    private List<ContactModel> models;
+
+    @Setup(Level.Trial)
+    public void loadContacts() {
+        contacts = ContactCorpus.generate(contactCount, 42L);
+        models = buildContactTable().asList();
+    }
+
+    /**
+     * Models for {@link #linkDuplicates}, which mutates them, so every invocation
+     * starts from fresh ones; the other benchmarks only read theirs
+     */
+    @State(Scope.Thread)
+    public static class FreshModels {
+        List<ContactModel> models;
+
+        @Setup(Level.Invocation)
+        public void buildModels(DuplicateDetectionBenchmark benchmark) {
+            models = benchmark.buildContactTable().asList();
+        }
+    }
+
+    @Benchmark
+    public ContactTable buildContactTable() {
+        ContactTable table = new ContactTable();
+        for (String contact : contacts) {
+            table.add(contact);
+        }
+        table.trimToSize();
+        return table;
+    }
+
+    // Neighbouring pairs only, so the cost stays linear in the file size
+    @Benchmark
+    public void isPotentialDuplicate(Blackhole blackhole) {
+        for (int i = 1; i < models.size(); i++) {
+            blackhole.consume(models.get(i - 1).isPotentialDuplicate(models.get(i)));
+        }
+    }
+
+    @Benchmark
+    public List<ContactModel> linkDuplicates(FreshModels fresh) {
+        DuplicateDetector.linkDuplicates(fresh.models);
+        return fresh.models;
+    }
+
+    @Benchmark
+    public List<DuplicateDetector.Cluster> cluster() {
+        return DuplicateDetector.cluster(models);
+    }
+}
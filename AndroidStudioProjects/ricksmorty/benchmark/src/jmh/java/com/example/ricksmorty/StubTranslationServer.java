@@ -0,0 +1,189 @@
+package com.example.ricksmorty;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the gtx translation endpoint, so the translation pipeline can be
+ * measured without a network. Names are "translated" by the offline transliterator.
+ * Latency and server errors are simulated deterministically: every n-th request
+ * fails, so two runs with the same settings see the same failures. Rate limiting
+ * works like the real service, answering 429 to requests over a per-second budget.
+ */
+final class StubTranslationServer implements Closeable {
+    static {
+        // Otherwise Nagle holds back the response body until the headers are ACKed, adding
+        // a delayed-ACK wait to every request on a kept-alive connection
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final OfflineTransliterator transliterator = new OfflineTransliterator();
+    private final long latencyMs;
+    private final int errorOneIn;
+    private final int maxRequestsPerSecond;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private long windowStartMs;
+    private int windowRequests;
+
+    /**
+     * @param latencyMs      delay before every response
+     * @param errorOneIn     answer every n-th request with HTTP 500, or 0 for never
+     * @param maxRequestsPerSecond answer HTTP 429 to requests beyond this many in the
+     *                             current second, or 0 for no limit
+     */
+    StubTranslationServer(long latencyMs, int errorOneIn, int maxRequestsPerSecond) throws IOException {
+        this.latencyMs = latencyMs;
+        this.errorOneIn = errorOneIn;
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/translate_a/single", this::handle);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    long getRequestCount() {
+        return requests.get();
+    }
+
+    long getErrorCount() {
+        return errors.get();
+    }
+
+    long getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, String> form = parseForm(readBody(exchange.getRequestBody()));
+            long request = requests.incrementAndGet();
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+
+            if (overRateLimit()) {
+                rateLimited.incrementAndGet();
+                send(exchange, 429, "");
+                return;
+            }
+            if (errorOneIn > 0 && request % errorOneIn == 0) {
+                errors.incrementAndGet();
+                send(exchange, 500, "");
+                return;
+            }
+
+            String text = form.getOrDefault("q", "");
+            String sourceLang = form.getOrDefault("sl", "auto");
+            String translated = transliterator.transliterate(text, sourceLang, form.getOrDefault("tl", "en")).getText();
+            send(exchange, 200, "[[[" + quote(translated) + "," + quote(text) + ",null,null,3]],null,"
+                    + quote(sourceLang) + "]");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, "");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Fixed one-second windows, like a simple server-side quota
+    private synchronized boolean overRateLimit() {
+        if (maxRequestsPerSecond <= 0) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (now - windowStartMs >= 1000) {
+            windowStartMs = now;
+            windowRequests = 0;
+        }
+        return ++windowRequests > maxRequestsPerSecond;
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseForm(String body) {
+        Map<String, String> form = new HashMap<>();
+        for (String pair : body.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                form.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return form;
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                case '\t': quoted.append("\\t"); break;
+                default: quoted.append(c); break;
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (bytes.length > 0 && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.ricksmorty;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end translation of a whole address book against {@link StubTranslationServer}:
+ * chunks of contacts are batched, translated over HTTP by {@link GtxTranslator} on
+ * parallel workers and rewritten, the same steps as the app's translation run.
+ * Every English contact has a made-up surname, so most names need a request. Each
+ * run starts with a fresh client, so its rate limiter starts from its initial rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class TranslationPipelineBenchmark {
+    // Same as VCardProcessor
+    private static final int CHUNK_SIZE = 50;
+    private static final int WORKERS = 4;
+
+    @Param({"10000"})
+    public int contactCount;
+
+    @Param({"0", "20"})
+    public long latencyMs;
+
+    // Every n-th request answered with HTTP 500, 0 for none
+    @Param({"0", "25"})
+    public int errorOneIn;
+
+    // Requests per second the stub accepts before answering HTTP 429, 0 for no limit
+    @Param({"0", "40"})
+    public int maxRequestsPerSecond;
+
+    private List<String> contacts;
+    private StubTranslationServer server;
+    private ExecutorService workers;
+
+    @Setup
+    public void setUp() throws IOException {
+        contacts = ContactCorpus.generate(contactCount, 42L, true);
+        server = new StubTranslationServer(latencyMs, errorOneIn, maxRequestsPerSecond);
+        workers = Executors.newFixedThreadPool(WORKERS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        workers.shutdownNow();
+        server.close();
+    }
+
+    @Benchmark
+    public void translateFile(Blackhole blackhole) throws InterruptedException, ExecutionException {
+        // A fresh translator per run, like the app, so nothing is remembered between iterations
+        NameTranslator translator = new NameTranslator(true, new OfflineTransliterator(),
+                new GtxTranslator(server.getBaseUrl(), WORKERS));
+        List<Future<List<String>>> chunks = new ArrayList<>();
+        for (int start = 0; start < contacts.size(); start += CHUNK_SIZE) {
+            List<String> chunk = contacts.subList(start, Math.min(contacts.size(), start + CHUNK_SIZE));
+            chunks.add(workers.submit(() -> processChunk(chunk, translator)));
+        }
+        for (Future<List<String>> chunk : chunks) {
+            blackhole.consume(chunk.get());
+        }
+    }
+
+    private static List<String> processChunk(List<String> chunk, NameTranslator translator) {
+        NameTranslator.Batch batch = translator.newBatch();
+        VCardRecord[] records = new VCardRecord[chunk.size()];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = VCardParser.parse(chunk.get(i));
+            String name = ContactNameProcessor.findName(records[i]);
+            if (name == null || ContactNameProcessor.containsBothLanguages(name)) {
+                continue;
+            }
+            if (ContactNameProcessor.isHindi(name)) {
+                batch.add(name, records[i].getStructuredName(), "hi", "en");
+            } else {
+                batch.add(name, records[i].getStructuredName(), "en", "hi");
+            }
+        }
+        batch.translate();
+
+        List<String> processed = new ArrayList<>(chunk.size());
+        for (int i = 0; i < records.length; i++) {
+            processed.add(ContactNameProcessor.process(chunk.get(i), records[i], null, translator));
+        }
+        return processed;
+    }
+}
@@ -0,0 +1,18 @@
+// Plain Java parsing and duplicate detection, shared by the app and the benchmarks
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+// Name tables and tests of the script ranges use Devanagari literals
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
@@ -0,0 +1,116 @@
+package com.example.ricksmorty;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket whose rate adapts to the server (AIMD): every successful request
+ * raises the rate by a fixed step, every throttled one halves it. A server that
+ * starts answering 429 is backed off within a few requests, and the rate climbs
+ * back slowly once it recovers.
+ */
+public class AdaptiveRateLimiter {
+    private final double minRate;
+    private final double maxRate;
+    private final double increaseStep;
+    private final double burst;
+    private final LongSupplier nanoClock;
+
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+
+    private long acquired;
+    private long throttled;
+    private long waitedNanos;
+
+    /**
+     * @param initialRate  requests per second to start with
+     * @param minRate      the rate never drops below this many requests per second
+     * @param maxRate      the rate never climbs above this many requests per second
+     * @param increaseStep requests per second added after every successful request
+     * @param burst        requests that may be sent back to back after an idle period
+     */
+    public AdaptiveRateLimiter(double initialRate, double minRate, double maxRate, double increaseStep, double burst) {
+        this(initialRate, minRate, maxRate, increaseStep, burst, System::nanoTime);
+    }
+
+    // Tests pass a clock they advance by hand
+    AdaptiveRateLimiter(double initialRate, double minRate, double maxRate, double increaseStep, double burst,
+                        LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increaseStep = increaseStep;
+        this.burst = Math.max(1, burst);
+        this.rate = Math.max(minRate, Math.min(maxRate, initialRate));
+        this.tokens = this.burst;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Take a token, waiting until one is available. Tokens are reserved in arrival
+     * order, so waiting threads are released one rate interval apart.
+     */
+    public void acquire() throws InterruptedIOException {
+        long waitNanos;
+        synchronized (this) {
+            refill(nanoClock.getAsLong());
+            tokens -= 1;
+            acquired++;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / rate * TimeUnit.SECONDS.toNanos(1));
+            waitedNanos += waitNanos;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the rate limiter");
+            }
+        }
+    }
+
+    /**
+     * Additive increase after a request the server accepted
+     */
+    public synchronized void onSuccess() {
+        refill(nanoClock.getAsLong());
+        rate = Math.min(maxRate, rate + increaseStep);
+    }
+
+    /**
+     * Multiplicative decrease after the server asked us to slow down
+     */
+    public synchronized void onThrottled() {
+        refill(nanoClock.getAsLong());
+        rate = Math.max(minRate, rate / 2);
+        throttled++;
+    }
+
+    // Tokens accrue at the current rate, so refill before every rate change
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * rate / TimeUnit.SECONDS.toNanos(1));
+        lastRefillNanos = now;
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    public synchronized long getAcquiredCount() {
+        return acquired;
+    }
+
+    public synchronized long getThrottledCount() {
+        return throttled;
+    }
+
+    /**
+     * Total time callers were told to wait for a token, in milliseconds
+     */
+    public synchronized long getWaitedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitedNanos);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.ricksmorty;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calling a service that keeps failing. After a run of consecutive failures
+ * the breaker opens and every call is rejected at once; when the open period is
+ * over a single trial call is let through, which closes the breaker again if it
+ * succeeds and reopens it if it fails.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilNanos;
+    private boolean trialInFlight;
+
+    private long opened;
+    private long rejected;
+
+    /**
+     * @param failureThreshold consecutive failures that open the breaker
+     * @param openMillis       how long calls are rejected before a trial call is allowed
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::nanoTime);
+    }
+
+    // Tests pass a clock they advance by hand
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier nanoClock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return whether the caller may make a call now; a caller that gets true must
+     * report the outcome with {@link #onSuccess}, {@link #onFailure} or {@link #onAbandoned}
+     */
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoClock.getAsLong() - openUntilNanos >= 0) {
+                    state = State.HALF_OPEN;
+                    trialInFlight = true;
+                    return true;
+                }
+                break;
+            case HALF_OPEN:
+                if (!trialInFlight) {
+                    trialInFlight = true;
+                    return true;
+                }
+                break;
+        }
+        rejected++;
+        return false;
+    }
+
+    /**
+     * Whether a call would currently be let through, without claiming the trial call
+     */
+    public synchronized boolean isCallPermitted() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                return nanoClock.getAsLong() - openUntilNanos >= 0;
+            default:
+                return !trialInFlight;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * The allowed call says nothing about the service yet, e.g. it was interrupted
+     * before it was sent or is retried after a 429; it counts neither way, the run of
+     * failures goes on, and a trial call may be made again
+     */
+    public synchronized void onAbandoned() {
+        trialInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                opened++;
+            }
+            state = State.OPEN;
+            openUntilNanos = nanoClock.getAsLong() + openNanos;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Number of times the breaker went from closed or half-open to open
+     */
+    public synchronized long getOpenedCount() {
+        return opened;
+    }
+
+    /**
+     * Number of calls rejected while the breaker was open
+     */
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.ricksmorty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A contact of a file: a lightweight view over one row of a {@link ContactTable},
+ * which holds the actual vCard data and extracted information
+ */
+public class ContactModel {
+    private final ContactTable table;
+    private final int row;
+
+    ContactModel(ContactTable table, int row) {
+        this.table = table;
+        this.row = row;
+    }
+
+    public ContactTable getTable() {
+        return table;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Check if this contact is potentially a duplicate of another contact
+     */
+    public boolean isPotentialDuplicate(ContactModel other) {
+        return table.sharesKey(row, other.table, other.row);
+    }
+
+    /**
+     * Normalized phone numbers used for duplicate matching, see {@link ContactTable#phoneKey}
+     */
+    public long[] getPhoneKeys() {
+        long[] keys = new long[table.getPhoneCount(row)];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = table.getPhoneKey(row, i);
+        }
+        return keys;
+    }
+
+    /**
+     * Lowercased emails used for duplicate matching
+     */
+    public String[] getEmailKeys() {
+        String[] keys = new String[table.getEmailCount(row)];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = table.getEmailKey(row, i);
+        }
+        return keys;
+    }
+
+    /**
+     * Record that {@code duplicate} shares a phone number or email with this contact,
+     * marking both as duplicates
+     */
+    public void addDuplicate(ContactModel duplicate) {
+        setDuplicate(true);
+        duplicate.setDuplicate(true);
+    }
+
+    // Getters and setters
+    public String getRawVCardData() {
+        return table.getRawVCardData(row);
+    }
+
+    public String getDisplayName() {
+        return table.getDisplayName(row);
+    }
+
+    public List<String> getPhoneNumbers() {
+        int count = table.getPhoneCount(row);
+        List<String> phoneNumbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            phoneNumbers.add(table.getPhoneNumber(row, i));
+        }
+        return phoneNumbers;
+    }
+
+    public List<String> getEmails() {
+        int count = table.getEmailCount(row);
+        List<String> emails = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            emails.add(table.getEmail(row, i));
+        }
+        return emails;
+    }
+
+    public boolean isDuplicate() {
+        return table.isDuplicate(row);
+    }
+
+    public void setDuplicate(boolean duplicate) {
+        table.setDuplicate(row, duplicate);
+    }
+
+    public boolean isSelected() {
+        return table.isSelected(row);
+    }
+
+    public void setSelected(boolean selected) {
+        table.setSelected(row, selected);
+    }
+
+    public String getCountryCode() {
+        return table.getCountryCode();
+    }
+
+    /**
+     * Sets the country code of the whole table this contact belongs to
+     */
+    public void setCountryCode(String countryCode) {
+        table.setCountryCode(countryCode);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ContactModel that = (ContactModel) o;
+        return table == that.table && row == that.row;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(table) + row;
+    }
+
+    @Override
+    public String toString() {
+        return "ContactModel{" +
+                "displayName='" + getDisplayName() + '\'' +
+                ", phoneNumbers=" + getPhoneNumbers() +
+                ", emails=" + getEmails() +
+                ", isDuplicate=" + isDuplicate() +
+                '}';
+    }
+}
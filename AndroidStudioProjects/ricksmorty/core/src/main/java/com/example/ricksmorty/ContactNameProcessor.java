@@ -0,0 +1,198 @@
+package com.example.ricksmorty;
+
+/**
+ * Rewrites the FN property of a single vCard to the bilingual "English (Hindi)" form.
+ * Kept free of Android dependencies so it can run and be benchmarked on a plain JVM.
+ */
+public class ContactNameProcessor {
+
+    /**
+     * Source of name translations for the current run
+     */
+    public interface NameTranslation {
+        String translateName(String fullName, String nValue, String sourceLang, String targetLang);
+    }
+
+    /**
+     * Notified with every name that was looked at
+     */
+    public interface NameListener {
+        void onNameProcessed(String originalName, String processedName);
+    }
+
+    private ContactNameProcessor() {
+    }
+
+    /**
+     * Process one contact. A missing FN is rebuilt from N; a name that is not yet
+     * bilingual is translated and written back as "English (Hindi)".
+     *
+     * @param record      the parsed fields of {@code contact}
+     * @param listener    may be null
+     * @param translation translation source, or null to leave names untranslated
+     */
+    public static String process(String contact, VCardRecord record, NameListener listener,
+                                 NameTranslation translation) {
+        // Extract the FN (Full Name) field
+        String originalName = record.getFormattedName();
+        int fnStart = record.getFormattedNameStart();
+        int fnEnd = record.getFormattedNameEnd();
+
+        if (originalName == null) {
+            // If FN is not found, try to extract from N field
+            if (record.getStructuredName() == null) {
+                return contact; // Return unchanged if no name fields found
+            }
+            String constructedName = buildNameFromN(record.getStructuredName());
+            if (constructedName.isEmpty()) {
+                return contact; // Return unchanged if we can't create a name
+            }
+
+            // Add FN field to the contact, right after BEGIN:VCARD
+            String fnLine = "FN:" + constructedName + "\n";
+            fnStart = record.getBodyStart();
+            fnEnd = fnStart + fnLine.length();
+            contact = contact.substring(0, fnStart) + fnLine + contact.substring(fnStart);
+            originalName = constructedName;
+        }
+
+        // Check if the name already contains both English and Hindi translations
+        if (containsBothLanguages(originalName)) {
+            // Notify listener about the already processed name
+            if (listener != null) {
+                listener.onNameProcessed(originalName, originalName);
+            }
+            return contact;
+        }
+
+        if (translation == null) {
+            return contact;
+        }
+
+        String nValue = record.getStructuredName();
+        String englishName, hindiName;
+        if (isHindi(originalName)) {
+            hindiName = originalName;
+            englishName = translation.translateName(hindiName, nValue, "hi", "en");
+
+            // Fallback if translation fails
+            if (englishName == null || englishName.equals(hindiName)) {
+                englishName = hindiName;
+            }
+        } else {
+            englishName = originalName;
+            hindiName = translation.translateName(englishName, nValue, "en", "hi");
+
+            // Fallback if translation fails
+            if (hindiName == null || hindiName.equals(englishName)) {
+                hindiName = englishName;
+            }
+        }
+
+        String newName = englishName + " (" + hindiName + ")";
+
+        // Notify listener about the processed name
+        if (listener != null) {
+            listener.onNameProcessed(originalName, newName);
+        }
+
+        // Replace the whole FN property, including any parameters and folded lines
+        return contact.substring(0, fnStart) + "FN:" + newName + "\n" + contact.substring(fnEnd);
+    }
+
+    /**
+     * The name {@link #process} will translate: FN, or one built from N when FN is missing
+     */
+    public static String findName(VCardRecord record) {
+        if (record.getFormattedName() != null) {
+            return record.getFormattedName();
+        }
+        if (record.getStructuredName() != null) {
+            String name = buildNameFromN(record.getStructuredName());
+            return name.isEmpty() ? null : name;
+        }
+        return null;
+    }
+
+    // N format is: last;first;middle;prefix;suffix
+    static String buildNameFromN(String nValue) {
+        String[] nameParts = nValue.split(";");
+        StringBuilder nameBuilder = new StringBuilder();
+
+        // Add prefix if exists
+        if (nameParts.length > 3 && !nameParts[3].isEmpty()) {
+            nameBuilder.append(nameParts[3]).append(" ");
+        }
+
+        // Add first name if exists
+        if (nameParts.length > 1 && !nameParts[1].isEmpty()) {
+            nameBuilder.append(nameParts[1]).append(" ");
+        }
+
+        // Add middle name if exists
+        if (nameParts.length > 2 && !nameParts[2].isEmpty()) {
+            nameBuilder.append(nameParts[2]).append(" ");
+        }
+
+        // Add last name if exists
+        if (nameParts.length > 0 && !nameParts[0].isEmpty()) {
+            nameBuilder.append(nameParts[0]);
+        }
+
+        return nameBuilder.toString().trim();
+    }
+
+    /**
+     * Checks if the text contains both English and Hindi languages
+     * Common patterns: "English (Hindi)" or "Hindi (English)"
+     */
+    public static boolean containsBothLanguages(String text) {
+        if (text == null || text.isEmpty()) {
+            return false;
+        }
+
+        // Check for parentheses pattern which often indicates dual-language names
+        int open = text.indexOf('(');
+        int close = open >= 0 ? text.indexOf(')', open + 1) : -1;
+        if (close < 0) {
+            return false;
+        }
+
+        // Hindi inside the first parenthesized part
+        boolean insideHasHindi = containsDevanagari(text, open + 1, close);
+
+        // Hindi outside every parenthesized part
+        boolean outsideHasHindi = false;
+        int pos = 0;
+        while (pos < text.length() && !outsideHasHindi) {
+            int groupOpen = text.indexOf('(', pos);
+            int groupClose = groupOpen >= 0 ? text.indexOf(')', groupOpen + 1) : -1;
+            int end = groupClose >= 0 ? groupOpen : text.length();
+            outsideHasHindi = containsDevanagari(text, pos, end);
+            pos = groupClose >= 0 ? groupClose + 1 : text.length();
+        }
+
+        // If one part has Hindi and the other doesn't, it likely contains both languages
+        return outsideHasHindi != insideHasHindi;
+    }
+
+    /**
+     * Check if the text contains Hindi Unicode characters (0900-097F)
+     */
+    public static boolean isHindi(String text) {
+        if (text == null || text.isEmpty()) {
+            return false;
+        }
+        return containsDevanagari(text, 0, text.length());
+    }
+
+    private static boolean containsDevanagari(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= 'ऀ' && c <= 'ॿ') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,529 @@
+package com.example.ricksmorty;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Column-oriented storage for the contacts of one file. Instead of a few objects
+ * and strings per contact, every row is a set of offsets into shared buffers:
+ * names, phone numbers and emails are packed into one char array, raw vCards into
+ * one UTF-8 byte array, phone keys into a long array and the selection and
+ * duplicate flags into bit sets. {@link ContactModel} is a view over one row.
+ * <p>
+ * When the table has a {@link VCardSource}, vCards that were not modified are
+ * not copied at all: the row only records their byte range in the source file.
+ */
+public class ContactTable implements Closeable {
+    private static final int INITIAL_ROWS = 16;
+
+    // Display names, phone numbers and emails of every row, back to back
+    private char[] text = new char[256];
+    private int textLength;
+
+    // Raw vCards as UTF-8, back to back, for the rows that are not in the source file
+    private byte[] raw = new byte[1024];
+    private int rawLength;
+    private VCardSource source;
+
+    private int rowCount;
+    private int[] nameStart = new int[INITIAL_ROWS];
+    private int[] nameEnd = new int[INITIAL_ROWS];
+    // Byte range of each vCard, in the source file if the row is in inSource, otherwise in raw
+    private long[] rawStart = new long[INITIAL_ROWS];
+    private int[] rawSize = new int[INITIAL_ROWS];
+
+    // Phones and emails of row r are the entries from rowPhones[r] up to rowPhones[r + 1]
+    private int[] rowPhones = new int[INITIAL_ROWS + 1];
+    private int[] rowEmails = new int[INITIAL_ROWS + 1];
+
+    private int phoneCount;
+    private int[] phoneStart = new int[INITIAL_ROWS];
+    private int[] phoneEnd = new int[INITIAL_ROWS];
+    private long[] phoneKeys = new long[INITIAL_ROWS];
+
+    private int emailCount;
+    private int[] emailStart = new int[INITIAL_ROWS];
+    private int[] emailEnd = new int[INITIAL_ROWS];
+
+    private final BitSet inSource = new BitSet();
+    private final BitSet selected = new BitSet();
+    private final BitSet duplicate = new BitSet();
+    private String countryCode = "91"; // Default country code for India
+
+    /**
+     * File the vCards of later rows can be referenced in instead of copied.
+     * The table takes ownership and closes it in {@link #close()}.
+     */
+    public void setSource(VCardSource source) {
+        this.source = source;
+    }
+
+    public VCardSource getSource() {
+        return source;
+    }
+
+    /**
+     * Parse a vCard and append it as a new, selected row, keeping a copy of its text
+     *
+     * @return the index of the new row
+     */
+    public int add(String rawVCardData) {
+        return add(rawVCardData, -1, 0);
+    }
+
+    /**
+     * Parse a vCard and append it as a new, selected row. If the table has a source,
+     * the row refers to the given byte range of it instead of copying the text;
+     * the range must hold the original of {@code rawVCardData}, unmodified.
+     *
+     * @param sourceOffset start of the vCard in the source file, or -1 to keep a copy of the text
+     * @return the index of the new row
+     */
+    public int add(String rawVCardData, long sourceOffset, int sourceLength) {
+        VCardRecord record = VCardParser.parse(rawVCardData);
+        int row = rowCount;
+        ensureRowCapacity(row + 1);
+
+        // Extract display name
+        String formattedName = record.getFormattedName();
+        nameStart[row] = textLength;
+        appendText(formattedName != null ? formattedName.trim() : "Unknown");
+        nameEnd[row] = textLength;
+
+        if (source != null && sourceOffset >= 0) {
+            rawStart[row] = sourceOffset;
+            rawSize[row] = sourceLength;
+            inSource.set(row);
+        } else {
+            byte[] bytes = rawVCardData.getBytes(StandardCharsets.UTF_8);
+            rawStart[row] = rawLength;
+            rawSize[row] = bytes.length;
+            appendRaw(bytes);
+        }
+
+        // Extract phone numbers, normalized by removing everything but digits and '+'
+        for (String value : record.getPhoneNumbers()) {
+            int start = textLength;
+            appendPhoneDigits(value);
+            if (textLength == start || containsValue(phoneStart, phoneEnd, rowPhones[row], phoneCount, start)) {
+                textLength = start;
+                continue;
+            }
+            ensurePhoneCapacity(phoneCount + 1);
+            phoneStart[phoneCount] = start;
+            phoneEnd[phoneCount] = textLength;
+            phoneKeys[phoneCount] = phoneKey(text, start, textLength, countryCode);
+            phoneCount++;
+        }
+        rowPhones[row + 1] = phoneCount;
+
+        // Extract emails
+        for (String value : record.getEmails()) {
+            String email = value.trim();
+            int start = textLength;
+            appendText(email);
+            if (email.isEmpty() || containsValue(emailStart, emailEnd, rowEmails[row], emailCount, start)) {
+                textLength = start;
+                continue;
+            }
+            ensureEmailCapacity(emailCount + 1);
+            emailStart[emailCount] = start;
+            emailEnd[emailCount] = textLength;
+            emailCount++;
+        }
+        rowEmails[row + 1] = emailCount;
+
+        selected.set(row); // Default to selected
+        rowCount++;
+        return row;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Release the spare capacity left by growing the buffers, once all rows are added
+     */
+    public void trimToSize() {
+        text = Arrays.copyOf(text, textLength);
+        raw = Arrays.copyOf(raw, rawLength);
+        nameStart = Arrays.copyOf(nameStart, rowCount);
+        nameEnd = Arrays.copyOf(nameEnd, rowCount);
+        rawStart = Arrays.copyOf(rawStart, rowCount);
+        rawSize = Arrays.copyOf(rawSize, rowCount);
+        rowPhones = Arrays.copyOf(rowPhones, rowCount + 1);
+        rowEmails = Arrays.copyOf(rowEmails, rowCount + 1);
+        phoneStart = Arrays.copyOf(phoneStart, phoneCount);
+        phoneEnd = Arrays.copyOf(phoneEnd, phoneCount);
+        phoneKeys = Arrays.copyOf(phoneKeys, phoneCount);
+        emailStart = Arrays.copyOf(emailStart, emailCount);
+        emailEnd = Arrays.copyOf(emailEnd, emailCount);
+    }
+
+    /**
+     * A view over one row
+     */
+    public ContactModel get(int row) {
+        checkRow(row);
+        return new ContactModel(this, row);
+    }
+
+    /**
+     * Every row as a list of views, created as they are read
+     */
+    public List<ContactModel> asList() {
+        return new RowList();
+    }
+
+    /**
+     * The vCard text, read back from the source file if the row is kept there
+     *
+     * @throws UncheckedIOException if the source file can no longer be read
+     */
+    public String getRawVCardData(int row) {
+        checkRow(row);
+        if (!inSource.get(row)) {
+            return new String(raw, (int) rawStart[row], rawSize[row], StandardCharsets.UTF_8);
+        }
+        try {
+            return new String(source.read(rawStart[row], rawSize[row]), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the vCard bytes of a row to {@code out}
+     */
+    public void writeRow(int row, OutputStream out) throws IOException {
+        checkRow(row);
+        if (inSource.get(row)) {
+            out.write(source.read(rawStart[row], rawSize[row]));
+        } else {
+            out.write(raw, (int) rawStart[row], rawSize[row]);
+        }
+    }
+
+    /**
+     * True if the row's vCard is referenced in the source file rather than held in the table
+     */
+    public boolean isInSource(int row) {
+        return inSource.get(row);
+    }
+
+    /**
+     * Start of the row's vCard in the source file, see {@link #isInSource}
+     */
+    public long getSourceOffset(int row) {
+        checkRow(row);
+        return inSource.get(row) ? rawStart[row] : -1;
+    }
+
+    /**
+     * Size of the row's vCard in bytes
+     */
+    public int getRawSize(int row) {
+        checkRow(row);
+        return rawSize[row];
+    }
+
+    public String getDisplayName(int row) {
+        checkRow(row);
+        return new String(text, nameStart[row], nameEnd[row] - nameStart[row]);
+    }
+
+    public int getPhoneCount(int row) {
+        checkRow(row);
+        return rowPhones[row + 1] - rowPhones[row];
+    }
+
+    public String getPhoneNumber(int row, int index) {
+        int phone = rowPhones[row] + index;
+        return new String(text, phoneStart[phone], phoneEnd[phone] - phoneStart[phone]);
+    }
+
+    /**
+     * Normalized phone number used for duplicate matching, see {@link #phoneKey}
+     */
+    public long getPhoneKey(int row, int index) {
+        return phoneKeys[rowPhones[row] + index];
+    }
+
+    public int getEmailCount(int row) {
+        checkRow(row);
+        return rowEmails[row + 1] - rowEmails[row];
+    }
+
+    public String getEmail(int row, int index) {
+        int email = rowEmails[row] + index;
+        return new String(text, emailStart[email], emailEnd[email] - emailStart[email]);
+    }
+
+    /**
+     * Lowercased email used for duplicate matching (email addresses are case-insensitive)
+     */
+    public String getEmailKey(int row, int index) {
+        return getEmail(row, index).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Check if a row of this table and a row of {@code other} share a normalized
+     * phone number or email, without materializing any strings
+     */
+    public boolean sharesKey(int row, ContactTable other, int otherRow) {
+        // If they have the same phone number, they're duplicates
+        for (int a = rowPhones[row]; a < rowPhones[row + 1]; a++) {
+            for (int b = other.rowPhones[otherRow]; b < other.rowPhones[otherRow + 1]; b++) {
+                if (phoneKeys[a] == other.phoneKeys[b]) {
+                    return true;
+                }
+            }
+        }
+
+        // If they have the same email, they're duplicates
+        for (int a = rowEmails[row]; a < rowEmails[row + 1]; a++) {
+            int length = emailEnd[a] - emailStart[a];
+            for (int b = other.rowEmails[otherRow]; b < other.rowEmails[otherRow + 1]; b++) {
+                if (other.emailEnd[b] - other.emailStart[b] == length
+                        && regionEqualsIgnoreCase(text, emailStart[a], other.text, other.emailStart[b], length)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    public boolean isSelected(int row) {
+        return selected.get(row);
+    }
+
+    public void setSelected(int row, boolean isSelected) {
+        checkRow(row);
+        selected.set(row, isSelected);
+    }
+
+    public boolean isDuplicate(int row) {
+        return duplicate.get(row);
+    }
+
+    public void setDuplicate(int row, boolean isDuplicate) {
+        checkRow(row);
+        duplicate.set(row, isDuplicate);
+    }
+
+    /**
+     * True if any row has been marked as a duplicate
+     */
+    public boolean hasDuplicates() {
+        return !duplicate.isEmpty();
+    }
+
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    /**
+     * Change the country code stripped from phone numbers, recomputing every phone key
+     */
+    public void setCountryCode(String countryCode) {
+        if (Objects.equals(this.countryCode, countryCode)) {
+            return;
+        }
+        this.countryCode = countryCode;
+        for (int i = 0; i < phoneCount; i++) {
+            phoneKeys[i] = phoneKey(text, phoneStart[i], phoneEnd[i], countryCode);
+        }
+    }
+
+    /**
+     * Normalize phone number by removing country code prefixes and leading zeros
+     * to enable better matching of duplicate numbers. The result is at most ten
+     * digits without leading zeros, so it is stored as its numeric value; an empty
+     * number maps to 0.
+     */
+    static long phoneKey(String phone, String countryCode) {
+        return phoneKey(phone.toCharArray(), 0, phone.length(), countryCode);
+    }
+
+    private static long phoneKey(char[] chars, int from, int to, String countryCode) {
+        // Keep only the digits; '+' and separators are dropped
+        char[] digits = new char[to - from];
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                digits[length++] = c;
+            }
+        }
+
+        // Remove specific country code if present
+        int start = 0;
+        if (countryCode != null && !countryCode.isEmpty() && startsWith(digits, length, countryCode)) {
+            start = countryCode.length();
+        }
+
+        // Remove country code if present (assuming a max of 3 digits for country code)
+        // This is a simplified approach - a more comprehensive solution would use a library
+        if (length - start > 10) {
+            start = length - 10;
+        }
+
+        // Leading zeros vanish when the digits are read as a number
+        long key = 0;
+        for (int i = start; i < length; i++) {
+            key = key * 10 + (digits[i] - '0');
+        }
+        return key;
+    }
+
+    private static boolean startsWith(char[] digits, int length, String prefix) {
+        if (prefix.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (digits[i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionEqualsIgnoreCase(char[] a, int aStart, char[] b, int bStart, int length) {
+        for (int i = 0; i < length; i++) {
+            char x = a[aStart + i];
+            char y = b[bStart + i];
+            if (x != y && Character.toLowerCase(x) != Character.toLowerCase(y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // True if text[candidate, textLength) equals one of the values first..last-1
+    private boolean containsValue(int[] starts, int[] ends, int first, int last, int candidate) {
+        int length = textLength - candidate;
+        for (int i = first; i < last; i++) {
+            if (ends[i] - starts[i] == length && regionEquals(starts[i], candidate, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean regionEquals(int aStart, int bStart, int length) {
+        for (int i = 0; i < length; i++) {
+            if (text[aStart + i] != text[bStart + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendText(String value) {
+        ensureTextCapacity(textLength + value.length());
+        value.getChars(0, value.length(), text, textLength);
+        textLength += value.length();
+    }
+
+    // Appends only the digits and '+' of a phone number
+    private void appendPhoneDigits(String phone) {
+        ensureTextCapacity(textLength + phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '+') {
+                text[textLength++] = c;
+            }
+        }
+    }
+
+    private void appendRaw(byte[] bytes) {
+        if (rawLength + bytes.length > raw.length) {
+            raw = Arrays.copyOf(raw, Math.max(grow(raw.length), rawLength + bytes.length));
+        }
+        System.arraycopy(bytes, 0, raw, rawLength, bytes.length);
+        rawLength += bytes.length;
+    }
+
+    private void ensureTextCapacity(int capacity) {
+        if (capacity > text.length) {
+            text = Arrays.copyOf(text, Math.max(grow(text.length), capacity));
+        }
+    }
+
+    private void ensureRowCapacity(int rows) {
+        if (rows <= nameStart.length) {
+            return;
+        }
+        int capacity = Math.max(grow(nameStart.length), rows);
+        nameStart = Arrays.copyOf(nameStart, capacity);
+        nameEnd = Arrays.copyOf(nameEnd, capacity);
+        rawStart = Arrays.copyOf(rawStart, capacity);
+        rawSize = Arrays.copyOf(rawSize, capacity);
+        rowPhones = Arrays.copyOf(rowPhones, capacity + 1);
+        rowEmails = Arrays.copyOf(rowEmails, capacity + 1);
+    }
+
+    private void ensurePhoneCapacity(int phones) {
+        if (phones <= phoneStart.length) {
+            return;
+        }
+        int capacity = Math.max(grow(phoneStart.length), phones);
+        phoneStart = Arrays.copyOf(phoneStart, capacity);
+        phoneEnd = Arrays.copyOf(phoneEnd, capacity);
+        phoneKeys = Arrays.copyOf(phoneKeys, capacity);
+    }
+
+    private void ensureEmailCapacity(int emails) {
+        if (emails <= emailStart.length) {
+            return;
+        }
+        int capacity = Math.max(grow(emailStart.length), emails);
+        emailStart = Arrays.copyOf(emailStart, capacity);
+        emailEnd = Arrays.copyOf(emailEnd, capacity);
+    }
+
+    /**
+     * Close the source file, after which rows kept in it can no longer be read
+     */
+    @Override
+    public void close() throws IOException {
+        if (source != null) {
+            source.close();
+        }
+    }
+
+    // Grow by half, like ArrayList, to keep the spare capacity of large tables small
+    private static int grow(int length) {
+        return length + (length >> 1) + 1;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        }
+    }
+
+    private class RowList extends AbstractList<ContactModel> implements RandomAccess {
+        @Override
+        public ContactModel get(int index) {
+            return ContactTable.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return rowCount;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.ricksmorty;
+
+/**
+ * Logging for hot paths. Messages are patterns whose {@code {}} placeholders are
+ * filled in only if the level is enabled, so a disabled call costs a field read and
+ * builds no strings. Nothing is logged until the app installs a {@link Sink}; release
+ * builds leave debug messages off, and R8 removes the calls entirely when the build
+ * is minified (see proguard-rules.pro).
+ */
+public final class DebugLog {
+    // Same values as android.util.Log
+    public static final int VERBOSE = 2;
+    public static final int DEBUG = 3;
+    public static final int INFO = 4;
+    public static final int WARN = 5;
+    public static final int ERROR = 6;
+    private static final int OFF = Integer.MAX_VALUE;
+
+    public interface Sink {
+        void log(int level, String tag, String message);
+    }
+
+    private static volatile Sink sink;
+    private static volatile int minLevel = OFF;
+
+    private DebugLog() {
+    }
+
+    /**
+     * Send messages of {@code level} and above to {@code sink}; a null sink turns logging off
+     */
+    public static void setSink(Sink sink, int level) {
+        DebugLog.sink = sink;
+        minLevel = sink == null ? OFF : level;
+    }
+
+    public static boolean isLoggable(int level) {
+        return level >= minLevel;
+    }
+
+    public static void d(String tag, String message) {
+        if (DEBUG >= minLevel) {
+            log(DEBUG, tag, message);
+        }
+    }
+
+    public static void d(String tag, String pattern, Object arg) {
+        if (DEBUG >= minLevel) {
+            log(DEBUG, tag, format(pattern, arg));
+        }
+    }
+
+    public static void d(String tag, String pattern, Object arg1, Object arg2) {
+        if (DEBUG >= minLevel) {
+            log(DEBUG, tag, format(pattern, arg1, arg2));
+        }
+    }
+
+    public static void d(String tag, String pattern, Object arg1, Object arg2, Object arg3) {
+        if (DEBUG >= minLevel) {
+            log(DEBUG, tag, format(pattern, arg1, arg2, arg3));
+        }
+    }
+
+    private static void log(int level, String tag, String message) {
+        Sink current = sink;
+        if (current != null) {
+            current.log(level, tag, message);
+        }
+    }
+
+    // Replaces each {} with the next argument; placeholders beyond the arguments are kept
+    static String format(String pattern, Object... args) {
+        StringBuilder message = new StringBuilder(pattern.length() + 32);
+        int from = 0;
+        int next = 0;
+        int at;
+        while (next < args.length && (at = pattern.indexOf("{}", from)) >= 0) {
+            message.append(pattern, from, at).append(args[next++]);
+            from = at + 2;
+        }
+        return message.append(pattern, from, pattern.length()).toString();
+    }
+}
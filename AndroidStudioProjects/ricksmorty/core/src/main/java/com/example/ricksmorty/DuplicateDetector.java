@@ -0,0 +1,191 @@
+package com.example.ricksmorty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds duplicate contacts through an index of shared phone numbers and emails
+ * instead of comparing every contact against every other contact.
+ */
+public class DuplicateDetector {
+
+    private DuplicateDetector() {
+    }
+
+    /**
+     * Mark every contact that shares a normalized phone number or email with another
+     * contact as a duplicate. Gives the same result as calling
+     * {@link ContactModel#isPotentialDuplicate} on every pair, in a single pass over
+     * the contacts.
+     */
+    public static void linkDuplicates(List<ContactModel> contacts) {
+        Index index = new Index(contacts);
+        for (List<Integer> bucket : index.buckets()) {
+            if (bucket.size() < 2) {
+                continue;
+            }
+            for (int i : bucket) {
+                contacts.get(i).setDuplicate(true);
+            }
+        }
+    }
+
+    /**
+     * Maps each normalized phone key and email to the ascending indices of the contacts that have it
+     */
+    private static class Index {
+        final Map<Long, List<Integer>> phoneBuckets = new HashMap<>();
+        final Map<String, List<Integer>> emailBuckets = new HashMap<>();
+
+        Index(List<ContactModel> contacts) {
+            for (int i = 0; i < contacts.size(); i++) {
+                ContactModel contact = contacts.get(i);
+                ContactTable table = contact.getTable();
+                int row = contact.getRow();
+                for (int k = 0; k < table.getPhoneCount(row); k++) {
+                    addToBucket(phoneBuckets, table.getPhoneKey(row, k), i);
+                }
+                for (int k = 0; k < table.getEmailCount(row); k++) {
+                    addToBucket(emailBuckets, table.getEmailKey(row, k), i);
+                }
+            }
+        }
+
+        List<List<Integer>> buckets() {
+            List<List<Integer>> all = new ArrayList<>(phoneBuckets.size() + emailBuckets.size());
+            all.addAll(phoneBuckets.values());
+            all.addAll(emailBuckets.values());
+            return all;
+        }
+
+        private static <K> void addToBucket(Map<K, List<Integer>> buckets, K key, int index) {
+            List<Integer> bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new ArrayList<>(2);
+                buckets.put(key, bucket);
+            }
+            // A contact listing the same number twice is only indexed once
+            if (bucket.isEmpty() || bucket.get(bucket.size() - 1) != index) {
+                bucket.add(index);
+            }
+        }
+    }
+
+    /**
+     * A connected group of duplicate contacts
+     */
+    public static class Cluster {
+        private final List<ContactModel> contacts;
+        private final String matchKey;
+        private final boolean emailMatch;
+
+        Cluster(List<ContactModel> contacts, String matchKey, boolean emailMatch) {
+            this.contacts = contacts;
+            this.matchKey = matchKey;
+            this.emailMatch = emailMatch;
+        }
+
+        public List<ContactModel> getContacts() {
+            return contacts;
+        }
+
+        /**
+         * A normalized phone number or email shared inside the group, for display
+         */
+        public String getMatchKey() {
+            return matchKey;
+        }
+
+        public boolean isEmailMatch() {
+            return emailMatch;
+        }
+    }
+
+    /**
+     * Group contacts into connected components with union-find: two contacts end up
+     * in the same group if they are linked by any chain of shared normalized phone
+     * numbers or emails (A and B share a phone, B and C share an email gives A, B, C).
+     * Groups are ordered by their first contact and list contacts in input order.
+     */
+    public static List<Cluster> cluster(List<ContactModel> contacts) {
+        Index index = new Index(contacts);
+
+        int[] parent = new int[contacts.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (List<Integer> bucket : index.buckets()) {
+            int first = bucket.get(0);
+            for (int k = 1; k < bucket.size(); k++) {
+                union(parent, first, bucket.get(k));
+            }
+        }
+
+        // Components in order of their first member
+        Map<Integer, List<ContactModel>> components = new LinkedHashMap<>();
+        Map<Integer, Integer> firstMember = new HashMap<>();
+        for (int i = 0; i < contacts.size(); i++) {
+            int root = find(parent, i);
+            List<ContactModel> members = components.get(root);
+            if (members == null) {
+                members = new ArrayList<>(2);
+                components.put(root, members);
+                firstMember.put(root, i);
+            }
+            members.add(contacts.get(i));
+        }
+
+        List<Cluster> clusters = new ArrayList<>();
+        for (Map.Entry<Integer, List<ContactModel>> component : components.entrySet()) {
+            if (component.getValue().size() < 2) {
+                continue;
+            }
+            ContactModel first = contacts.get(firstMember.get(component.getKey()));
+            String matchKey = null;
+            boolean emailMatch = false;
+            // Prefer a shared phone number as the label, then a shared email
+            for (long phone : first.getPhoneKeys()) {
+                if (index.phoneBuckets.get(phone).size() > 1) {
+                    matchKey = phone == 0 ? "" : Long.toString(phone);
+                    break;
+                }
+            }
+            if (matchKey == null) {
+                for (String email : first.getEmailKeys()) {
+                    if (index.emailBuckets.get(email).size() > 1) {
+                        matchKey = email;
+                        emailMatch = true;
+                        break;
+                    }
+                }
+            }
+            clusters.add(new Cluster(component.getValue(), matchKey, emailMatch));
+        }
+        return clusters;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            // Path halving keeps the trees nearly flat
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            // Attach the later root under the earlier one so roots stay the lowest index
+            if (rootA < rootB) {
+                parent[rootB] = rootA;
+            } else {
+                parent[rootA] = rootB;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.ricksmorty;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A {@link VCardSource} over a seekable file. Reads are positional, so the channel
+ * can be shared by several threads. The file size is remembered when the source is
+ * opened and every access fails if it has changed since, rather than copying
+ * ranges that no longer line up with the parsed contacts.
+ */
+public class FileChannelVCardSource implements VCardSource {
+    private final FileChannel channel;
+    private final Closeable owner;
+    private final long size;
+
+    /**
+     * @param owner closed together with the channel, e.g. the descriptor it was opened from; may be null
+     */
+    public FileChannelVCardSource(FileChannel channel, Closeable owner) throws IOException {
+        this.channel = channel;
+        this.owner = owner;
+        this.size = channel.size();
+    }
+
+    @Override
+    public byte[] read(long offset, int length) throws IOException {
+        checkUnchanged();
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, offset + buffer.position());
+            if (n < 0) {
+                throw new EOFException("Source file ended at " + (offset + buffer.position()));
+            }
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public void transferTo(long offset, long length, WritableByteChannel target) throws IOException {
+        checkUnchanged();
+        long done = 0;
+        while (done < length) {
+            long n = channel.transferTo(offset + done, length - done, target);
+            if (n <= 0) {
+                throw new EOFException("Source file ended at " + (offset + done));
+            }
+            done += n;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            if (owner != null) {
+                owner.close();
+            }
+        }
+    }
+
+    private void checkUnchanged() throws IOException {
+        if (channel.size() != size) {
+            throw new IOException("The source file changed since it was read");
+        }
+    }
+}
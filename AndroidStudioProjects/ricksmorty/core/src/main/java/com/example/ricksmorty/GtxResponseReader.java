@@ -0,0 +1,218 @@
+package com.example.ricksmorty;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Pull reader for gtx translation responses of the form
+ * [[["translated","original",...],["translated","original",...]],null,"en"].
+ * The translated text of every segment is decoded straight from the stream into
+ * the caller's buffer, without holding the response or building a string per token.
+ */
+final class GtxResponseReader {
+    private final Reader in;
+    private final char[] buffer = new char[4096];
+    private int pos;
+    private int limit;
+
+    GtxResponseReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Append the translated text of every segment to {@code out} and consume the rest
+     * of the response
+     */
+    void readTranslation(StringBuilder out) throws IOException {
+        readSegments(out, null);
+    }
+
+    /**
+     * Decode the response of a request that packed several texts one per line. The
+     * translated text is split on line breaks into {@code lines} while it is read.
+     */
+    void readLines(List<String> lines) throws IOException {
+        StringBuilder line = new StringBuilder();
+        readSegments(line, lines);
+        lines.add(line.toString());
+    }
+
+    // With lines set, every line break in the text completes a line instead of going into out
+    private void readSegments(StringBuilder out, List<String> lines) throws IOException {
+        expect('[');
+        if (peek() == '[') {
+            next();
+            if (peek() == ']') {
+                next();
+            } else {
+                do {
+                    readSegment(out, lines);
+                } while (separator(']'));
+            }
+        } else {
+            // null in place of the segments: nothing was translated
+            skipValue();
+        }
+        // Read to the end so the connection can go back to the keep-alive pool
+        while (fill()) {
+            pos = limit;
+        }
+    }
+
+    private void readSegment(StringBuilder out, List<String> lines) throws IOException {
+        if (peek() == 'n') {
+            // null in place of a segment
+            skipValue();
+            return;
+        }
+        expect('[');
+        if (peek() == ']') {
+            next();
+            return;
+        }
+        if (peek() == '"') {
+            next();
+            readString(out, lines);
+        } else {
+            skipValue();
+        }
+        while (separator(']')) {
+            skipValue();
+        }
+    }
+
+    // After a value: true if a comma follows, false if the closing bracket does
+    private boolean separator(char close) throws IOException {
+        char c = next();
+        if (c == ',') {
+            return true;
+        }
+        if (c != close) {
+            throw new IOException("Unexpected '" + c + "' in translation response");
+        }
+        return false;
+    }
+
+    // Called after the opening quote; out is null to skip the string
+    private void readString(StringBuilder out, List<String> lines) throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                throw new IOException("Unterminated string in translation response");
+            }
+            char c = buffer[pos++];
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                c = readEscape();
+            }
+            if (out == null) {
+                continue;
+            }
+            if (c == '\n' && lines != null) {
+                lines.add(out.toString());
+                out.setLength(0);
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        char escaped = nextRaw();
+        switch (escaped) {
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(nextRaw(), 16);
+                    if (digit < 0) {
+                        throw new IOException("Invalid unicode escape in translation response");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default: return escaped;
+        }
+    }
+
+    // Skip one value: a string, an array of any depth, or a literal such as null or a number
+    private void skipValue() throws IOException {
+        char c = peek();
+        if (c == '"') {
+            next();
+            readString(null, null);
+        } else if (c == '[') {
+            next();
+            if (peek() == ']') {
+                next();
+                return;
+            }
+            do {
+                skipValue();
+            } while (separator(']'));
+        } else if (c == '{') {
+            throw new IOException("Unexpected object in translation response");
+        } else {
+            while (true) {
+                if (pos == limit && !fill()) {
+                    return;
+                }
+                c = buffer[pos];
+                if (c == ',' || c == ']' || Character.isWhitespace(c)) {
+                    return;
+                }
+                pos++;
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        char c = next();
+        if (c != expected) {
+            throw new IOException("Unexpected translation response format");
+        }
+    }
+
+    // Next character that is not whitespace, without consuming it
+    private char peek() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                throw new IOException("Truncated translation response");
+            }
+            char c = buffer[pos];
+            if (!Character.isWhitespace(c)) {
+                return c;
+            }
+            pos++;
+        }
+    }
+
+    private char next() throws IOException {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private char nextRaw() throws IOException {
+        if (pos == limit && !fill()) {
+            throw new IOException("Truncated translation response");
+        }
+        return buffer[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        pos = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,453 @@
+package com.example.ricksmorty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Client for the free "gtx" endpoint of Google Translate. The base URL is
+ * configurable so the same client can be pointed at a local stub server.
+ * Connections are left to the platform's keep-alive pool, so a long run pays for
+ * the TCP and TLS handshakes once per pooled connection rather than per request.
+ * Requests pass an adaptive rate limiter that backs off when the service answers
+ * 429, and a circuit breaker that fails fast once the service keeps failing: only
+ * server errors (5xx), connection errors and throttling that outlasts the retries
+ * count against it.
+ */
+public class GtxTranslator implements Translator {
+    public static final String DEFAULT_BASE_URL = "https://translate.googleapis.com";
+    private static final String TRANSLATE_PATH = "/translate_a/single";
+
+    // Limits for one batched request; names are packed one per line
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int MAX_BATCH_CHARS = 4000;
+    private static final String BATCH_SEPARATOR = "\n";
+
+    // Retries for HTTP 429 responses, waiting about 1 s, 2 s, 4 s... unless Retry-After says otherwise
+    private static final int MAX_RATE_LIMIT_RETRIES = 4;
+    private static final long BASE_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 30000;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    // Retries for server and connection errors, waiting about 0.25 s, then 0.5 s
+    private static final int MAX_ERROR_RETRIES = 2;
+    private static final long BASE_ERROR_BACKOFF_MS = 250;
+
+    // Start at 10 requests per second, add 1 per success, halve on every 429
+    private static final double INITIAL_RATE = 10;
+    private static final double MIN_RATE = 0.5;
+    private static final double MAX_RATE = 100;
+    private static final double RATE_INCREASE = 1;
+    private static final double RATE_BURST = 4;
+    // Five failures in a row stop all requests for 30 s
+    private static final int BREAKER_FAILURE_THRESHOLD = 5;
+    private static final long BREAKER_OPEN_MS = 30000;
+
+    /**
+     * Thrown when the service takes no requests for now: without contacting it while
+     * the circuit breaker is open, or when it still rate limits after every retry
+     */
+    public static class UnavailableException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    private final String baseUrl;
+    private final URL endpoint;
+    private final AdaptiveRateLimiter limiter;
+    private final CircuitBreaker breaker;
+    private volatile Semaphore requestPermits;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public GtxTranslator() {
+        this(DEFAULT_BASE_URL, 4);
+    }
+
+    /**
+     * @param baseUrl scheme, host and port of the service, e.g. "http://127.0.0.1:8080"
+     */
+    public GtxTranslator(String baseUrl, int maxConcurrentRequests) {
+        this(baseUrl, maxConcurrentRequests,
+                new AdaptiveRateLimiter(INITIAL_RATE, MIN_RATE, MAX_RATE, RATE_INCREASE, RATE_BURST),
+                new CircuitBreaker(BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_MS));
+    }
+
+    public GtxTranslator(String baseUrl, int maxConcurrentRequests, AdaptiveRateLimiter limiter,
+                         CircuitBreaker breaker) {
+        this.limiter = limiter;
+        this.breaker = breaker;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        try {
+            this.endpoint = new URL(this.baseUrl + TRANSLATE_PATH);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid translation service URL: " + baseUrl, e);
+        }
+        this.requestPermits = new Semaphore(Math.max(1, maxConcurrentRequests));
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public AdaptiveRateLimiter getRateLimiter() {
+        return limiter;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    /**
+     * False while the circuit breaker rejects requests
+     */
+    @Override
+    public boolean isAvailable() {
+        return breaker.isCallPermitted();
+    }
+
+    /**
+     * Current limiter and breaker state with request counters, keyed by metric name
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("requests", requests.get());
+        metrics.put("retries", retries.get());
+        metrics.put("failures", failures.get());
+        metrics.put("rateLimiter.permitsPerSecond", limiter.getRate());
+        metrics.put("rateLimiter.throttled", limiter.getThrottledCount());
+        metrics.put("rateLimiter.waitedMs", limiter.getWaitedMillis());
+        metrics.put("circuitBreaker.state", breaker.getState().name());
+        metrics.put("circuitBreaker.opened", breaker.getOpenedCount());
+        metrics.put("circuitBreaker.rejected", breaker.getRejectedCount());
+        return metrics;
+    }
+
+    /**
+     * Limit how many requests this client may have open at the same time across all threads
+     */
+    public void setMaxConcurrentRequests(int maxRequests) {
+        requestPermits = new Semaphore(Math.max(1, maxRequests));
+    }
+
+    /**
+     * @return the translation, or null if the request failed or the service
+     * handed the text back unchanged
+     */
+    @Override
+    public String translate(String text, String sourceLang, String targetLang) {
+        try {
+            return changedOrNull(text, fetch(text, sourceLang, targetLang));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public List<String> translateBatch(List<String> texts, String sourceLang, String targetLang) {
+        List<String> fetched = fetchBatch(texts, sourceLang, targetLang);
+        List<String> results = new ArrayList<>(fetched.size());
+        for (int i = 0; i < fetched.size(); i++) {
+            results.add(changedOrNull(texts.get(i), fetched.get(i)));
+        }
+        return results;
+    }
+
+    private static String changedOrNull(String text, String result) {
+        return result == null || result.isEmpty() || result.equals(text) ? null : result;
+    }
+
+    /**
+     * The service's answer for one text, which may be the text itself
+     *
+     * @throws IOException if the request fails or the response cannot be read
+     */
+    public String fetch(String text, String sourceLang, String targetLang) throws IOException {
+        return post(text, sourceLang, targetLang, response -> {
+            StringBuilder translated = new StringBuilder(text.length() * 2);
+            response.readTranslation(translated);
+            return translated.toString();
+        });
+    }
+
+    /**
+     * The service's answers for several texts, using as few requests as possible. Texts
+     * are packed one per line into POST requests and the translated lines are matched
+     * back up by position; a request whose lines don't line up, or that fails, is retried
+     * one text at a time. The result has the same size and order as {@code texts}, with
+     * null for texts that got no answer.
+     */
+    public List<String> fetchBatch(List<String> texts, String sourceLang, String targetLang) {
+        List<String> results = new ArrayList<>(texts.size());
+        List<String> batch = new ArrayList<>();
+        int batchChars = 0;
+        for (String text : texts) {
+            if (!batch.isEmpty() && (batch.size() >= MAX_BATCH_SIZE || batchChars + text.length() > MAX_BATCH_CHARS)) {
+                results.addAll(fetchChunk(batch, sourceLang, targetLang));
+                batch.clear();
+                batchChars = 0;
+            }
+            batch.add(text);
+            batchChars += text.length() + 1;
+        }
+        if (!batch.isEmpty()) {
+            results.addAll(fetchChunk(batch, sourceLang, targetLang));
+        }
+        return results;
+    }
+
+    private List<String> fetchChunk(List<String> chunk, String sourceLang, String targetLang) {
+        if (chunk.size() > 1) {
+            try {
+                List<String> translated = fetchLines(chunk, sourceLang, targetLang);
+                if (translated != null) {
+                    return translated;
+                }
+            } catch (UnavailableException e) {
+                // No point asking text by text while the breaker is open or the service rate limits
+                return new ArrayList<>(Collections.nCopies(chunk.size(), (String) null));
+            } catch (IOException e) {
+                // Retried one by one below, which also isolates a text the service chokes on
+            }
+        }
+
+        List<String> translated = new ArrayList<>(chunk.size());
+        for (String text : chunk) {
+            String result;
+            try {
+                result = fetch(text, sourceLang, targetLang);
+            } catch (UnavailableException e) {
+                break;
+            } catch (IOException e) {
+                result = null;
+            }
+            translated.add(result == null || result.isEmpty() ? null : result);
+        }
+        // Texts after the service became unavailable get no answer
+        while (translated.size() < chunk.size()) {
+            translated.add(null);
+        }
+        return translated;
+    }
+
+    // One request for a chunk of texts; null if the lines of the answer don't line up with the texts
+    private List<String> fetchLines(List<String> chunk, String sourceLang, String targetLang) throws IOException {
+        String[] lines = new String[chunk.size()];
+        for (int i = 0; i < lines.length; i++) {
+            // A line break inside a name would shift every following result
+            lines[i] = chunk.get(i).replace('\n', ' ').replace('\r', ' ');
+        }
+        List<String> translatedLines = post(String.join(BATCH_SEPARATOR, lines), sourceLang, targetLang, response -> {
+            List<String> decoded = new ArrayList<>(lines.length + 1);
+            response.readLines(decoded);
+            return decoded;
+        });
+
+        // A trailing separator may come back on the last line
+        int count = translatedLines.size();
+        if (count == chunk.size() + 1 && translatedLines.get(count - 1).trim().isEmpty()) {
+            count--;
+        }
+        if (count != chunk.size()) {
+            return null;
+        }
+
+        List<String> translated = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String result = translatedLines.get(i).trim();
+            translated.add(result.isEmpty() ? null : result);
+        }
+        return translated;
+    }
+
+    private interface ResponseHandler<T> {
+        T read(GtxResponseReader response) throws IOException;
+    }
+
+    // POST the text as a form body, which avoids URL length limits for large batches
+    private <T> T post(String text, String sourceLang, String targetLang, ResponseHandler<T> handler)
+            throws IOException {
+        String body = "client=gtx" +
+                "&sl=" + sourceLang +
+                "&tl=" + targetLang +
+                "&dt=t" +
+                "&q=" + URLEncoder.encode(text, StandardCharsets.UTF_8.toString());
+        byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+
+        int throttledAttempts = 0;
+        int failedAttempts = 0;
+        while (true) {
+            if (!breaker.allowRequest()) {
+                throw new UnavailableException("Translation service unavailable, circuit breaker is open");
+            }
+            try {
+                limiter.acquire();
+            } catch (InterruptedIOException e) {
+                breaker.onAbandoned();
+                throw e;
+            }
+            Semaphore permits = requestPermits;
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // The breaker expects an outcome for every request it allowed
+                breaker.onAbandoned();
+                throw new InterruptedIOException("Interrupted while waiting to send translation request");
+            }
+            requests.incrementAndGet();
+
+            long delay;
+            HttpURLConnection connection = null;
+            // Only a connection whose response was read to the end goes back to the keep-alive pool
+            boolean reusable = false;
+            try {
+                connection = (HttpURLConnection) endpoint.openConnection();
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                connection.setRequestProperty("User-Agent", "Mozilla/5.0");
+                connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded;charset=UTF-8");
+                connection.setRequestProperty("Accept-Encoding", "gzip");
+                // Left buffered so headers and body go out in one write; a separate small body write
+                // on a reused connection waits for the ACK of the headers (Nagle)
+                connection.setConnectTimeout(10000); // 10 seconds timeout
+                connection.setReadTimeout(10000);    // 10 seconds read timeout
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(bodyBytes);
+                }
+
+                int status = connection.getResponseCode();
+                if (status == HttpURLConnection.HTTP_OK) {
+                    T response = readResponse(connection, handler);
+                    reusable = true;
+                    limiter.onSuccess();
+                    breaker.onSuccess();
+                    return response;
+                }
+                drain(connection.getErrorStream());
+                reusable = true;
+
+                if (status == HTTP_TOO_MANY_REQUESTS) {
+                    limiter.onThrottled();
+                    if (throttledAttempts >= MAX_RATE_LIMIT_RETRIES) {
+                        // Throttling that outlasts every backoff counts against the service,
+                        // so sustained rate limiting opens the breaker
+                        breaker.onFailure();
+                        failures.incrementAndGet();
+                        throw new UnavailableException("Translation request still rate limited after "
+                                + throttledAttempts + " retries");
+                    }
+                    // Neither way yet: a success would hide sustained throttling from the breaker
+                    breaker.onAbandoned();
+                    long retryAfterMs = parseRetryAfter(connection.getHeaderField("Retry-After"));
+                    delay = retryAfterMs >= 0
+                            ? Math.min(retryAfterMs, MAX_BACKOFF_MS)
+                            : jitteredBackoff(BASE_BACKOFF_MS, throttledAttempts);
+                    throttledAttempts++;
+                } else if (status < 500) {
+                    // A request the service rejected fails on its own; the service itself answered
+                    breaker.onSuccess();
+                    failures.incrementAndGet();
+                    throw new IOException("Translation request failed with HTTP " + status);
+                } else {
+                    breaker.onFailure();
+                    if (failedAttempts >= MAX_ERROR_RETRIES) {
+                        failures.incrementAndGet();
+                        throw new IOException("Translation request failed with HTTP " + status);
+                    }
+                    delay = jitteredBackoff(BASE_ERROR_BACKOFF_MS, failedAttempts);
+                    failedAttempts++;
+                }
+            } catch (IOException e) {
+                if (reusable || e instanceof UnavailableException) {
+                    // Outcome already reported above
+                    throw e;
+                }
+                // Connection errors, timeouts and unreadable responses
+                breaker.onFailure();
+                if (Thread.currentThread().isInterrupted() || failedAttempts >= MAX_ERROR_RETRIES) {
+                    failures.incrementAndGet();
+                    throw e;
+                }
+                delay = jitteredBackoff(BASE_ERROR_BACKOFF_MS, failedAttempts);
+                failedAttempts++;
+            } finally {
+                if (connection != null && !reusable) {
+                    connection.disconnect();
+                }
+                permits.release();
+            }
+
+            // Back off outside the permit so other requests are not blocked while we wait
+            retries.incrementAndGet();
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while backing off");
+            }
+        }
+    }
+
+    // Exponential backoff with equal jitter, so clients throttled together don't retry together
+    private static long jitteredBackoff(long baseMs, int attempt) {
+        long backoff = Math.min(MAX_BACKOFF_MS, baseMs << Math.min(attempt, 16));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    // Requests ask for gzip themselves, so the body is decoded here rather than by the platform
+    private static <T> T readResponse(HttpURLConnection connection, ResponseHandler<T> handler) throws IOException {
+        InputStream in = connection.getInputStream();
+        if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+            in = new GZIPInputStream(in);
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return handler.read(new GtxResponseReader(reader));
+        }
+    }
+
+    // An error body left unread would keep the connection from being reused
+    private static void drain(InputStream in) throws IOException {
+        if (in == null) {
+            return;
+        }
+        try (InputStream body = in) {
+            byte[] buffer = new byte[4096];
+            while (body.read(buffer) != -1) {
+                // Discard
+            }
+        }
+    }
+
+    // Retry-After given in seconds; the HTTP-date form is treated as absent
+    private static long parseRetryAfter(String header) {
+        if (header == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(header.trim()) * 1000;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.ricksmorty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Translates contact names for the duration of one processing run.
+ * In token mode a name is split into its given/middle/family parts and every
+ * distinct part is translated only once per run, since first names and surnames
+ * repeat heavily across an address book.
+ * Names the {@link OfflineTransliterator} knows are answered locally and never
+ * reach the remote translator; when the remote has no answer the rule-based
+ * transliteration is used instead of the untranslated name.
+ */
+public class NameTranslator implements ContactNameProcessor.NameTranslation {
+    private final boolean byToken;
+    private final OfflineTransliterator transliterator;
+    private final Translator remote;
+    private final Map<String, String> memo = new ConcurrentHashMap<>();
+    // Rule-based guesses, kept apart from the memo so that forgetting them leaves real translations
+    private final Map<String, String> guesses = new ConcurrentHashMap<>();
+    // Every key guessed this run; never cleared, so a guess in use is reported even after it is forgotten
+    private final Set<String> guessed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger names = new AtomicInteger();
+    private final AtomicInteger offline = new AtomicInteger();
+
+    public NameTranslator(boolean byToken, OfflineTransliterator transliterator, Translator remote) {
+        this.byToken = byToken;
+        this.transliterator = transliterator;
+        this.remote = remote;
+    }
+
+    /**
+     * Translate a full name, using the N field components when they describe the
+     * same name so multi-word parts (e.g. "De Souza") stay together.
+     *
+     * @param nValue value of the N field, or null if the contact has none
+     */
+    @Override
+    public String translateName(String fullName, String nValue, String sourceLang, String targetLang) {
+        names.incrementAndGet();
+        if (!byToken) {
+            return translateToken(fullName.trim(), sourceLang, targetLang);
+        }
+
+        List<String> tokens = nameTokens(fullName, nValue);
+        StringBuilder translated = new StringBuilder();
+        for (String token : tokens) {
+            if (translated.length() > 0) {
+                translated.append(' ');
+            }
+            translated.append(translateToken(token, sourceLang, targetLang));
+        }
+        return translated.toString();
+    }
+
+    /**
+     * Start collecting names whose tokens should be fetched together in batched requests.
+     * Batches from different threads may be filled and translated at the same time.
+     */
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    public class Batch {
+        // Tokens waiting for a request, grouped by "source|target"
+        private final Map<String, LinkedHashSet<String>> pending = new LinkedHashMap<>();
+
+        public void add(String fullName, String nValue, String sourceLang, String targetLang) {
+            List<String> tokens = byToken ? nameTokens(fullName, nValue) : Collections.singletonList(fullName.trim());
+            String direction = sourceLang + '|' + targetLang;
+            for (String token : tokens) {
+                if (lookup(direction + '|' + token) == null && !translateOffline(token, sourceLang, targetLang)) {
+                    LinkedHashSet<String> queued = pending.get(direction);
+                    if (queued == null) {
+                        queued = new LinkedHashSet<>();
+                        pending.put(direction, queued);
+                    }
+                    queued.add(token);
+                }
+            }
+        }
+
+        /**
+         * Translate every queued token, one batched request per language pair
+         */
+        public void translate() {
+            for (Map.Entry<String, LinkedHashSet<String>> entry : pending.entrySet()) {
+                String[] languages = entry.getKey().split("\\|");
+                List<String> tokens = new ArrayList<>(entry.getValue());
+                List<String> translated = remote.translateBatch(tokens, languages[0], languages[1]);
+                requests.addAndGet(tokens.size());
+                for (int i = 0; i < tokens.size(); i++) {
+                    remember(entry.getKey() + '|' + tokens.get(i), translated.get(i), tokens.get(i),
+                            languages[0], languages[1]);
+                }
+            }
+            pending.clear();
+        }
+    }
+
+    // Each distinct token is looked up once per run; failures fall back to the rule-based transliteration
+    private String translateToken(String token, String sourceLang, String targetLang) {
+        String key = sourceLang + '|' + targetLang + '|' + token;
+        String cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (translateOffline(token, sourceLang, targetLang)) {
+            return memo.get(key);
+        }
+        requests.incrementAndGet();
+        return remember(key, remote.translate(token, sourceLang, targetLang), token, sourceLang, targetLang);
+    }
+
+    private String lookup(String key) {
+        String translated = memo.get(key);
+        return translated != null ? translated : guesses.get(key);
+    }
+
+    // Memoizes the local answer for a token if the transliterator is confident in it
+    private boolean translateOffline(String token, String sourceLang, String targetLang) {
+        String result = transliterator.translate(token, sourceLang, targetLang);
+        if (result == null) {
+            return false;
+        }
+        offline.incrementAndGet();
+        memo.put(sourceLang + '|' + targetLang + '|' + token, result);
+        return true;
+    }
+
+    // Memoizes the remote answer, or the rule-based guess when there is none
+    private String remember(String key, String result, String token, String sourceLang, String targetLang) {
+        if (result != null && !result.isEmpty()) {
+            memo.put(key, result);
+            return result;
+        }
+        String guess = transliterator.transliterate(token, sourceLang, targetLang).getText();
+        // Marked before it can be looked up
+        guessed.add(key);
+        guesses.put(key, guess);
+        return guess;
+    }
+
+    /**
+     * Number of distinct names or tokens that had to be translated this run
+     */
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Whether the translation of this name may rely on a rule-based guess because neither
+     * the dictionary nor the remote translator knew some part of it at some point this
+     * run. Stays true after {@link #forgetGuesses}, even once the remote answers.
+     */
+    public boolean isGuessed(String fullName, String nValue, String sourceLang, String targetLang) {
+        if (guessed.isEmpty()) {
+            return false;
+        }
+        List<String> tokens = byToken ? nameTokens(fullName, nValue) : Collections.singletonList(fullName.trim());
+        for (String token : tokens) {
+            if (guessed.contains(sourceLang + '|' + targetLang + '|' + token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drop the rule-based guesses remembered so far, so that the next lookup of those
+     * tokens asks the remote translator again. Safe while other threads translate.
+     */
+    public void forgetGuesses() {
+        guesses.clear();
+    }
+
+    /**
+     * Whether the remote translator is answering requests right now
+     */
+    public boolean isRemoteAvailable() {
+        return remote.isAvailable();
+    }
+
+    /**
+     * Number of distinct names or tokens answered by the offline transliterator
+     */
+    public int getOfflineCount() {
+        return offline.get();
+    }
+
+    public int getNameCount() {
+        return names.get();
+    }
+
+    /**
+     * Split a name into tokens. The structured N field (family;given;middle;prefix;suffix)
+     * is used when its components spell out the same name as FN, otherwise FN is
+     * split on whitespace.
+     */
+    static List<String> nameTokens(String fullName, String nValue) {
+        String normalizedName = fullName.trim().replaceAll("\\s+", " ");
+        if (nValue != null) {
+            String[] parts = nValue.split(";", -1);
+            List<String> ordered = new ArrayList<>(5);
+            addPart(ordered, parts, 3); // prefix
+            addPart(ordered, parts, 1); // given
+            addPart(ordered, parts, 2); // middle
+            addPart(ordered, parts, 0); // family
+            addPart(ordered, parts, 4); // suffix
+            if (!ordered.isEmpty() && String.join(" ", ordered).equals(normalizedName)) {
+                return ordered;
+            }
+        }
+        if (normalizedName.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        Collections.addAll(tokens, normalizedName.split(" "));
+        return tokens;
+    }
+
+    private static void addPart(List<String> ordered, String[] parts, int index) {
+        if (parts.length > index) {
+            String part = parts[index].trim().replaceAll("\\s+", " ");
+            if (!part.isEmpty()) {
+                ordered.add(part);
+            }
+        }
+    }
+}
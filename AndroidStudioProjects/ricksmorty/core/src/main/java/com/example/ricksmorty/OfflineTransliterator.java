@@ -0,0 +1,407 @@
+package com.example.ricksmorty;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Local English to Devanagari transliteration of Indian names and back, so common
+ * names never need a network round trip and unknown ones still get a readable
+ * result when the network is down. Words found in the built-in dictionary of
+ * common first names and surnames are transliterated with high confidence; any
+ * other word is spelled out by phonetic rules, which is only a best guess.
+ */
+public class OfflineTransliterator implements Translator {
+
+    /**
+     * A transliterated text and whether every word of it came from the dictionary
+     */
+    public static final class Result {
+        private final String text;
+        private final boolean confident;
+
+        Result(String text, boolean confident) {
+            this.text = text;
+            this.confident = confident;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public boolean isConfident() {
+            return confident;
+        }
+    }
+
+    // Common names as {Latin, Devanagari}; the first Latin spelling of a Devanagari name is used in reverse
+    private static final String[][] NAMES = {
+            // Given names
+            {"aarav", "आरव"}, {"aditya", "आदित्य"}, {"ajay", "अजय"}, {"akash", "आकाश"},
+            {"amit", "अमित"}, {"amita", "अमिता"}, {"anand", "आनंद"}, {"anil", "अनिल"},
+            {"anita", "अनीता"}, {"anjali", "अंजलि"}, {"ankit", "अंकित"}, {"anup", "अनूप"},
+            {"arjun", "अर्जुन"}, {"arun", "अरुण"}, {"asha", "आशा"}, {"ashok", "अशोक"},
+            {"deepak", "दीपक"}, {"deepika", "दीपिका"}, {"dinesh", "दिनेश"}, {"divya", "दिव्या"},
+            {"ganesh", "गणेश"}, {"gaurav", "गौरव"}, {"geeta", "गीता"}, {"gita", "गीता"},
+            {"gopal", "गोपाल"}, {"hari", "हरि"}, {"harish", "हरीश"}, {"jyoti", "ज्योति"},
+            {"karan", "करण"}, {"kavita", "कविता"}, {"kiran", "किरण"}, {"kishore", "किशोर"},
+            {"krishna", "कृष्ण"}, {"kumar", "कुमार"}, {"lakshmi", "लक्ष्मी"}, {"lata", "लता"},
+            {"mahesh", "महेश"}, {"manish", "मनीष"}, {"manoj", "मनोज"}, {"meena", "मीना"},
+            {"meera", "मीरा"}, {"mohan", "मोहन"}, {"mohit", "मोहित"}, {"mukesh", "मुकेश"},
+            {"nandini", "नंदिनी"}, {"naresh", "नरेश"}, {"neha", "नेहा"}, {"nikhil", "निखिल"},
+            {"nisha", "निशा"}, {"nitin", "नितिन"}, {"pankaj", "पंकज"}, {"pawan", "पवन"},
+            {"pooja", "पूजा"}, {"puja", "पूजा"}, {"pradeep", "प्रदीप"}, {"prakash", "प्रकाश"},
+            {"priya", "प्रिया"}, {"rahul", "राहुल"}, {"raj", "राज"}, {"rajesh", "राजेश"},
+            {"rakesh", "राकेश"}, {"ram", "राम"}, {"ramesh", "रमेश"}, {"ravi", "रवि"},
+            {"rekha", "रेखा"}, {"ritu", "ऋतु"}, {"rohan", "रोहन"}, {"rohit", "रोहित"},
+            {"sachin", "सचिन"}, {"sandeep", "संदीप"}, {"sanjay", "संजय"}, {"santosh", "संतोष"},
+            {"sarita", "सरिता"}, {"seema", "सीमा"}, {"shankar", "शंकर"}, {"shiva", "शिव"},
+            {"shivani", "शिवानी"}, {"shweta", "श्वेता"}, {"sita", "सीता"}, {"sneha", "स्नेहा"},
+            {"sonia", "सोनिया"}, {"sunil", "सुनील"}, {"sunita", "सुनीता"}, {"suresh", "सुरेश"},
+            {"sushma", "सुषमा"}, {"swati", "स्वाति"}, {"tarun", "तरुण"}, {"uma", "उमा"},
+            {"usha", "उषा"}, {"varun", "वरुण"}, {"vijay", "विजय"}, {"vikas", "विकास"},
+            {"vikram", "विक्रम"}, {"vinod", "विनोद"}, {"vishal", "विशाल"}, {"yash", "यश"},
+            // Surnames
+            {"agarwal", "अग्रवाल"}, {"banerjee", "बनर्जी"}, {"bansal", "बंसल"}, {"bhatt", "भट्ट"},
+            {"bose", "बोस"}, {"chatterjee", "चटर्जी"}, {"chaudhary", "चौधरी"}, {"chauhan", "चौहान"},
+            {"chopra", "चोपड़ा"}, {"das", "दास"}, {"desai", "देसाई"}, {"dubey", "दुबे"},
+            {"dutta", "दत्ता"}, {"ghosh", "घोष"}, {"goswami", "गोस्वामी"}, {"gupta", "गुप्ता"},
+            {"iyer", "अय्यर"}, {"jain", "जैन"}, {"joshi", "जोशी"}, {"kapoor", "कपूर"},
+            {"khan", "खान"}, {"kulkarni", "कुलकर्णी"}, {"malhotra", "मल्होत्रा"}, {"mehta", "मेहता"},
+            {"menon", "मेनन"}, {"mishra", "मिश्रा"}, {"mukherjee", "मुखर्जी"}, {"nair", "नायर"},
+            {"pandey", "पांडे"}, {"pandit", "पंडित"}, {"patel", "पटेल"}, {"pillai", "पिल्लै"},
+            {"rao", "राव"}, {"reddy", "रेड्डी"}, {"saxena", "सक्सेना"}, {"sen", "सेन"},
+            {"shah", "शाह"}, {"sharma", "शर्मा"}, {"singh", "सिंह"}, {"sinha", "सिन्हा"},
+            {"srivastava", "श्रीवास्तव"}, {"thakur", "ठाकुर"}, {"tiwari", "तिवारी"}, {"trivedi", "त्रिवेदी"},
+            {"verma", "वर्मा"}, {"yadav", "यादव"}
+    };
+
+    private static final Map<String, String> LATIN_TO_DEVANAGARI = new HashMap<>();
+    private static final Map<String, String> DEVANAGARI_TO_LATIN = new HashMap<>();
+
+    static {
+        for (String[] name : NAMES) {
+            LATIN_TO_DEVANAGARI.put(name[0], name[1]);
+            if (!DEVANAGARI_TO_LATIN.containsKey(name[1])) {
+                DEVANAGARI_TO_LATIN.put(name[1], name[0]);
+            }
+        }
+    }
+
+    // Latin consonant clusters, longest first so "chh" wins over "ch" and "c"
+    private static final String[][] CONSONANTS = {
+            {"ksh", "क्ष"}, {"chh", "छ"},
+            {"ch", "च"}, {"kh", "ख"}, {"gh", "घ"}, {"jh", "झ"}, {"th", "थ"}, {"dh", "ध"},
+            {"ph", "फ"}, {"bh", "भ"}, {"sh", "श"},
+            {"k", "क"}, {"g", "ग"}, {"c", "क"}, {"j", "ज"}, {"t", "त"}, {"d", "द"}, {"n", "न"},
+            {"p", "प"}, {"b", "ब"}, {"m", "म"}, {"y", "य"}, {"r", "र"}, {"l", "ल"}, {"v", "व"},
+            {"w", "व"}, {"s", "स"}, {"h", "ह"}, {"f", "फ़"}, {"z", "ज़"}, {"q", "क़"}, {"x", "क्स"}
+    };
+
+    private static final String[] LEADING_X = {"x", "ज़"};
+    // First letters of the consonants above that are stops, aspirated or not
+    private static final String STOPS = "kgcjtdpbq";
+
+    // Latin vowels as {Latin, independent vowel, vowel sign after a consonant}
+    private static final String[][] VOWELS = {
+            {"aa", "आ", "ा"}, {"ai", "ऐ", "ै"}, {"au", "औ", "ौ"}, {"ee", "ई", "ी"}, {"ii", "ई", "ी"},
+            {"oo", "ऊ", "ू"}, {"uu", "ऊ", "ू"},
+            {"a", "अ", ""}, {"i", "इ", "ि"}, {"u", "उ", "ु"}, {"e", "ए", "े"}, {"o", "ओ", "ो"}
+    };
+
+    private static final char VIRAMA = '्';
+    private static final char ANUSVARA = 'ं';
+    private static final char CANDRABINDU = 'ँ';
+    private static final char VISARGA = 'ः';
+    private static final char NUKTA = '़';
+    private static final String AA_SIGN = "ा";
+
+    private static final Map<Character, String> DEVANAGARI_CONSONANTS = new HashMap<>();
+    private static final Map<Character, String> DEVANAGARI_VOWELS = new HashMap<>();
+    private static final Map<Character, String> DEVANAGARI_SIGNS = new HashMap<>();
+
+    static {
+        String[][] consonants = {
+                {"क", "k"}, {"ख", "kh"}, {"ग", "g"}, {"घ", "gh"}, {"ङ", "n"},
+                {"च", "ch"}, {"छ", "chh"}, {"ज", "j"}, {"झ", "jh"}, {"ञ", "n"},
+                {"ट", "t"}, {"ठ", "th"}, {"ड", "d"}, {"ढ", "dh"}, {"ण", "n"},
+                {"त", "t"}, {"थ", "th"}, {"द", "d"}, {"ध", "dh"}, {"न", "n"},
+                {"प", "p"}, {"फ", "ph"}, {"ब", "b"}, {"भ", "bh"}, {"म", "m"},
+                {"य", "y"}, {"र", "r"}, {"ल", "l"}, {"ळ", "l"}, {"व", "v"},
+                {"श", "sh"}, {"ष", "sh"}, {"स", "s"}, {"ह", "h"},
+                // Precomposed nukta letters, which are usually typed as the letter plus a nukta instead
+                {"\u0958", "q"}, {"\u0959", "kh"}, {"\u095A", "g"}, {"\u095B", "z"}, {"\u095C", "r"},
+                {"\u095D", "rh"}, {"\u095E", "f"}, {"\u095F", "y"}
+        };
+        for (String[] consonant : consonants) {
+            DEVANAGARI_CONSONANTS.put(consonant[0].charAt(0), consonant[1]);
+        }
+        // Long vowels are written short, the usual spelling of names (Rahul, Sunita)
+        String[][] vowels = {
+                {"अ", "a"}, {"आ", "a"}, {"इ", "i"}, {"ई", "i"}, {"उ", "u"}, {"ऊ", "u"},
+                {"ऋ", "ri"}, {"ए", "e"}, {"ऐ", "ai"}, {"ओ", "o"}, {"औ", "au"}
+        };
+        for (String[] vowel : vowels) {
+            DEVANAGARI_VOWELS.put(vowel[0].charAt(0), vowel[1]);
+        }
+        String[][] signs = {
+                {"ा", "a"}, {"ि", "i"}, {"ी", "i"}, {"ु", "u"}, {"ू", "u"}, {"ृ", "ri"},
+                {"े", "e"}, {"ै", "ai"}, {"ो", "o"}, {"ौ", "au"}
+        };
+        for (String[] sign : signs) {
+            DEVANAGARI_SIGNS.put(sign[0].charAt(0), sign[1]);
+        }
+    }
+
+    /**
+     * Returns the transliteration only if every word is a known name, so that a
+     * caller can skip the network for it; null otherwise
+     */
+    @Override
+    public String translate(String text, String sourceLang, String targetLang) {
+        Result result = transliterate(text, sourceLang, targetLang);
+        return result.isConfident() ? result.getText() : null;
+    }
+
+    /**
+     * Transliterate between English ("en") and Hindi ("hi"), word by word. Other
+     * language pairs return the text unchanged and not confident.
+     */
+    public Result transliterate(String text, String sourceLang, String targetLang) {
+        boolean toDevanagari;
+        if ("en".equals(sourceLang) && "hi".equals(targetLang)) {
+            toDevanagari = true;
+        } else if ("hi".equals(sourceLang) && "en".equals(targetLang)) {
+            toDevanagari = false;
+        } else {
+            return new Result(text, false);
+        }
+
+        StringBuilder out = new StringBuilder(text.length() * 2);
+        boolean confident = true;
+        boolean anyWord = false;
+        int i = 0;
+        while (i < text.length()) {
+            if (!isWordChar(text.charAt(i))) {
+                out.append(text.charAt(i++));
+                continue;
+            }
+            int end = i;
+            while (end < text.length() && isWordChar(text.charAt(end))) {
+                end++;
+            }
+            String word = text.substring(i, end);
+            anyWord = true;
+
+            String known = toDevanagari
+                    ? LATIN_TO_DEVANAGARI.get(word.toLowerCase(Locale.ROOT))
+                    : DEVANAGARI_TO_LATIN.get(word);
+            if (known != null) {
+                out.append(toDevanagari ? known : capitalize(known));
+            } else {
+                confident = false;
+                out.append(toDevanagari ? latinToDevanagari(word) : capitalize(devanagariToLatin(word)));
+            }
+            i = end;
+        }
+        return new Result(out.toString(), confident && anyWord);
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= 'ऀ' && c <= 'ॿ');
+    }
+
+    /**
+     * Phonetic spelling of a Latin word. A consonant directly followed by another
+     * is joined to it with a virama, "n" or "m" between a vowel and a stop becomes
+     * an anusvara (Sandeep, Pankaj) while before any other consonant it is written
+     * out (Kamla, Imran), a word-final "a" is long (Priya, Sharma) and a word-final
+     * consonant keeps no vowel (Rahul). A leading "x" sounds like "z" (Xavier).
+     */
+    static String latinToDevanagari(String word) {
+        String lower = word.toLowerCase(Locale.ROOT);
+        StringBuilder out = new StringBuilder(word.length() * 2);
+        // The last letter written is a consonant still waiting for its vowel
+        boolean openConsonant = false;
+        int i = 0;
+        while (i < lower.length()) {
+            char c = lower.charAt(i);
+            if (c < 'a' || c > 'z') {
+                out.append(word.charAt(i++));
+                openConsonant = false;
+                continue;
+            }
+
+            String[] vowel = match(VOWELS, lower, i);
+            if (vowel != null) {
+                i += vowel[0].length();
+                if (!openConsonant) {
+                    out.append(vowel[1]);
+                } else if (vowel[0].equals("a")) {
+                    // Inherent vowel, written long at the end of a word
+                    if (i == lower.length()) {
+                        out.append(AA_SIGN);
+                    }
+                } else {
+                    out.append(vowel[2]);
+                }
+                openConsonant = false;
+                continue;
+            }
+
+            String[] consonant = i == 0 && c == 'x' ? LEADING_X : match(CONSONANTS, lower, i);
+            if (consonant == null) {
+                out.append(word.charAt(i++));
+                openConsonant = false;
+                continue;
+            }
+            if ((c == 'n' || c == 'm') && consonant[0].length() == 1 && i > 0 && !openConsonant
+                    && startsWithStop(lower, i + 1)) {
+                out.append(ANUSVARA);
+                i++;
+                continue;
+            }
+            if (openConsonant) {
+                out.append(VIRAMA);
+            }
+            out.append(consonant[1]);
+            openConsonant = true;
+            i += consonant[0].length();
+        }
+        return out.toString();
+    }
+
+    // Stops take an anusvara before them; semivowels, sibilants, h and nasals follow the full nasal
+    private static boolean startsWithStop(String lower, int i) {
+        return i < lower.length() && STOPS.indexOf(lower.charAt(i)) >= 0;
+    }
+
+    private static String[] match(String[][] table, String text, int start) {
+        for (String[] entry : table) {
+            if (text.startsWith(entry[0], start)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Latin spelling of a Devanagari word. The inherent vowel is dropped at the end
+     * of a word unless the word ends in a conjunct (Krishna), and inside a word
+     * where Hindi leaves it silent: after a vowel and before a consonant that has
+     * one (Imran, Jagdish), deciding from the end of the word backwards.
+     */
+    static String devanagariToLatin(String word) {
+        int length = word.length();
+        // One unit per letter: its Latin spelling and, for consonants, the vowel it carries
+        String[] spelling = new String[length];
+        String[] vowelSign = new String[length];
+        boolean[] consonant = new boolean[length];
+        boolean[] inherent = new boolean[length];
+        boolean[] isVowel = new boolean[length];
+        boolean[] isNasal = new boolean[length];
+        int n = 0;
+        int i = 0;
+        while (i < length) {
+            char c = word.charAt(i);
+            String latin = DEVANAGARI_CONSONANTS.get(c);
+            if (latin != null) {
+                i++;
+                if (i < length && word.charAt(i) == NUKTA) {
+                    latin = withNukta(c, latin);
+                    i++;
+                }
+                consonant[n] = true;
+                vowelSign[n] = "";
+                String sign = i < length ? DEVANAGARI_SIGNS.get(word.charAt(i)) : null;
+                if (sign != null) {
+                    vowelSign[n] = sign;
+                    i++;
+                } else if (i < length && word.charAt(i) == VIRAMA) {
+                    i++;
+                } else {
+                    inherent[n] = true;
+                }
+                spelling[n++] = latin;
+                continue;
+            }
+
+            String vowel = DEVANAGARI_VOWELS.get(c);
+            if (vowel != null) {
+                spelling[n] = vowel;
+                isVowel[n] = true;
+            } else if (c == ANUSVARA || c == CANDRABINDU) {
+                boolean beforeLabial = i + 1 < length && "पफबभम".indexOf(word.charAt(i + 1)) >= 0;
+                spelling[n] = beforeLabial ? "m" : "n";
+                isNasal[n] = true;
+            } else if (c == VISARGA) {
+                spelling[n] = "h";
+            } else if (c != NUKTA && c != VIRAMA) {
+                spelling[n] = String.valueOf(c);
+            } else {
+                i++;
+                continue;
+            }
+            n++;
+            i++;
+        }
+
+        boolean[] silent = new boolean[n];
+        int last = n - 1;
+        if (last >= 0 && consonant[last] && inherent[last]) {
+            // Final conjunct keeps its vowel
+            boolean conjunct = last >= 1 && consonant[last - 1] && !inherent[last - 1]
+                    && vowelSign[last - 1].isEmpty();
+            silent[last] = !conjunct;
+        }
+        for (int k = last - 1; k >= 1; k--) {
+            if (!consonant[k] || !inherent[k]) {
+                continue;
+            }
+            // A nasal sign closes the syllable before it
+            int before = isNasal[k - 1] ? k - 2 : k - 1;
+            boolean vowelBefore = before >= 0 && (isVowel[before] || hasVowel(before, consonant, inherent,
+                    vowelSign, silent));
+            boolean vowelAfter = consonant[k + 1] && hasVowel(k + 1, consonant, inherent, vowelSign, silent);
+            silent[k] = vowelBefore && vowelAfter;
+        }
+
+        StringBuilder out = new StringBuilder(length * 2);
+        for (int k = 0; k < n; k++) {
+            out.append(spelling[k]);
+            if (consonant[k]) {
+                out.append(inherent[k] ? (silent[k] ? "" : "a") : vowelSign[k]);
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean hasVowel(int unit, boolean[] consonant, boolean[] inherent, String[] vowelSign,
+                                    boolean[] silent) {
+        return consonant[unit] && (inherent[unit] ? !silent[unit] : !vowelSign[unit].isEmpty());
+    }
+
+    private static String withNukta(char consonant, String latin) {
+        switch (consonant) {
+            case 'क':
+                return "q";
+            case 'ज':
+                return "z";
+            case 'फ':
+                return "f";
+            case 'ड':
+                return "r";
+            case 'ढ':
+                return "rh";
+            default:
+                return latin;
+        }
+    }
+
+    private static String capitalize(String word) {
+        if (word.isEmpty() || !Character.isLowerCase(word.charAt(0))) {
+            return word;
+        }
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.ricksmorty;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timings and counters of one processing job, such as translating or saving a file.
+ * The job that is running is reachable through {@link #current()}, so any stage of
+ * the pipeline can record into it without the collector being passed around; jobs
+ * run one at a time. Finished jobs render as a JSON run report.
+ */
+public class RunMetrics {
+    // Stage histograms
+    public static final String READ = "read";
+    public static final String PARSE = "parse";
+    public static final String TRANSLATE = "translate";
+    public static final String DEDUP = "dedup";
+    public static final String WRITE = "write";
+    public static final String TRANSLATION_REQUEST = "translationRequest";
+
+    // Counters; a pair named "x.hits" and "x.misses" is reported as the hit rate of x
+    public static final String CONTACTS = "contacts";
+    public static final String BYTES_READ = "bytesRead";
+    public static final String BYTES_WRITTEN = "bytesWritten";
+    public static final String PROCESSED_CACHE_HITS = "processedCache.hits";
+    public static final String PROCESSED_CACHE_MISSES = "processedCache.misses";
+    public static final String TRANSLATION_CACHE_HITS = "translationCache.hits";
+    public static final String TRANSLATION_CACHE_MISSES = "translationCache.misses";
+
+    private static final String HITS = ".hits";
+    private static final String MISSES = ".misses";
+
+    // Collects whatever is recorded while no job is running
+    private static volatile RunMetrics current = new RunMetrics("idle");
+
+    private final String job;
+    private final long startedAtMillis;
+    private final long startNanos;
+    private volatile long endNanos = -1;
+    private final Map<String, LatencyHistogram> stages = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+    private RunMetrics(String job) {
+        this.job = job;
+        this.startedAtMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Start collecting for a new job, which becomes {@link #current()}
+     */
+    public static RunMetrics begin(String job) {
+        RunMetrics metrics = new RunMetrics(job);
+        current = metrics;
+        return metrics;
+    }
+
+    public static RunMetrics current() {
+        return current;
+    }
+
+    /**
+     * Stop the clock of this job; later recordings no longer go to it
+     */
+    public void finish() {
+        if (endNanos < 0) {
+            endNanos = System.nanoTime();
+        }
+        if (current == this) {
+            current = new RunMetrics("idle");
+        }
+    }
+
+    public String getJob() {
+        return job;
+    }
+
+    public LatencyHistogram stage(String name) {
+        LatencyHistogram histogram = stages.get(name);
+        if (histogram == null) {
+            histogram = stages.computeIfAbsent(name, key -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    public void add(String counter, long delta) {
+        AtomicLong value = counters.get(counter);
+        if (value == null) {
+            value = counters.computeIfAbsent(counter, key -> new AtomicLong());
+        }
+        value.addAndGet(delta);
+    }
+
+    public long get(String counter) {
+        AtomicLong value = counters.get(counter);
+        return value == null ? 0 : value.get();
+    }
+
+    /**
+     * Attach a value to the report as it is, e.g. the state of the translation client
+     */
+    public void set(String name, Object value) {
+        values.put(name, value);
+    }
+
+    public long getDurationNanos() {
+        return (endNanos < 0 ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    /**
+     * The run report: duration, throughput, per-stage latency percentiles in
+     * milliseconds, cache hit rates and all counters and values
+     */
+    public String toJson() {
+        double seconds = getDurationNanos() / 1e9;
+        StringBuilder json = new StringBuilder(1024).append('{');
+        appendField(json, "job", job);
+        appendField(json, "startedAt", startedAtMillis);
+        appendField(json, "durationMs", TimeUnit.NANOSECONDS.toMillis(getDurationNanos()));
+        appendField(json, "contactsPerSecond", seconds > 0 ? get(CONTACTS) / seconds : 0.0);
+
+        json.append("\"stages\":{");
+        boolean first = true;
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(stages).entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            LatencyHistogram histogram = entry.getValue();
+            appendString(json, entry.getKey());
+            json.append(":{");
+            appendField(json, "count", histogram.getCount());
+            appendField(json, "totalMs", millis(histogram.getTotalNanos()));
+            appendField(json, "meanMs", millis(histogram.getMeanNanos()));
+            appendField(json, "p50Ms", millis(histogram.getPercentileNanos(50)));
+            appendField(json, "p90Ms", millis(histogram.getPercentileNanos(90)));
+            appendField(json, "p99Ms", millis(histogram.getPercentileNanos(99)));
+            appendField(json, "maxMs", millis(histogram.getMaxNanos()));
+            closeObject(json);
+        }
+        json.append("},");
+
+        Map<String, Long> counterValues = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            counterValues.put(entry.getKey(), entry.getValue().get());
+        }
+        json.append("\"cacheHitRates\":{");
+        first = true;
+        for (Map.Entry<String, Long> entry : counterValues.entrySet()) {
+            String name = entry.getKey();
+            if (!name.endsWith(HITS)) {
+                continue;
+            }
+            String cache = name.substring(0, name.length() - HITS.length());
+            long hits = entry.getValue();
+            long lookups = hits + counterValues.getOrDefault(cache + MISSES, 0L);
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            appendString(json, cache);
+            json.append(':').append(lookups == 0 ? "0.0" : format((double) hits / lookups));
+        }
+        json.append("},");
+
+        json.append("\"counters\":{");
+        for (Map.Entry<String, Long> entry : counterValues.entrySet()) {
+            appendField(json, entry.getKey(), entry.getValue());
+        }
+        closeObject(json);
+        json.append(',');
+
+        json.append("\"values\":{");
+        for (Map.Entry<String, Object> entry : new TreeMap<>(values).entrySet()) {
+            appendField(json, entry.getKey(), entry.getValue());
+        }
+        closeObject(json);
+        return json.append('}').toString();
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1e6;
+    }
+
+    private static void appendField(StringBuilder json, String name, Object value) {
+        appendString(json, name);
+        json.append(':');
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof Double || value instanceof Float) {
+            json.append(format(((Number) value).doubleValue()));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else if (value instanceof Map) {
+            json.append('{');
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                appendField(json, String.valueOf(entry.getKey()), entry.getValue());
+            }
+            closeObject(json);
+        } else {
+            appendString(json, value.toString());
+        }
+        json.append(',');
+    }
+
+    // Replaces the trailing comma of the last field, if any, with the closing brace
+    private static void closeObject(StringBuilder json) {
+        int last = json.length() - 1;
+        if (json.charAt(last) == ',') {
+            json.setCharAt(last, '}');
+        } else {
+            json.append('}');
+        }
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return "null";
+        }
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static void appendString(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ricksmorty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A source of translations for names, such as the online translation API or the
+ * offline transliterator
+ */
+public interface Translator {
+    /**
+     * @return the translation, or null if this translator has no answer it is confident in
+     */
+    String translate(String text, String sourceLang, String targetLang);
+
+    /**
+     * Whether requests are currently being answered. A translator that is failing fast,
+     * e.g. behind an open circuit breaker, returns false so callers can hold work back.
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * Translate several texts at once, in input order; entries are null where
+     * {@link #translate} would return null
+     */
+    default List<String> translateBatch(List<String> texts, String sourceLang, String targetLang) {
+        List<String> results = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            results.add(translate(text, sourceLang, targetLang));
+        }
+        return results;
+    }
+}
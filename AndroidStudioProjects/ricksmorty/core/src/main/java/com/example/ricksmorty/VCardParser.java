@@ -0,0 +1,216 @@
+package com.example.ricksmorty;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass tokenizer for the properties of one vCard. It walks the text once,
+ * reads property names (ignoring "item1." style groups) and parameters such as
+ * TEL;TYPE=CELL, joins folded lines and decodes QUOTED-PRINTABLE values in the
+ * given CHARSET. Only FN, N, TEL and EMAIL values are ever turned into strings.
+ */
+public class VCardParser {
+
+    private VCardParser() {
+    }
+
+    public static VCardRecord parse(String card) {
+        VCardRecord record = new VCardRecord();
+        int length = card.length();
+        int pos = 0;
+
+        while (pos < length) {
+            int lineStart = pos;
+            int lineEnd = lineEnd(card, pos);
+
+            // Property header: [group.]NAME[;PARAM...]:value
+            int nameStart = lineStart;
+            int colon = -1;
+            int paramsStart = -1;
+            boolean inQuotes = false;
+            for (int i = lineStart; i < lineEnd; i++) {
+                char c = card.charAt(i);
+                if (c == '"') {
+                    inQuotes = !inQuotes;
+                } else if (!inQuotes && c == ':') {
+                    colon = i;
+                    break;
+                } else if (!inQuotes && c == ';' && paramsStart < 0) {
+                    paramsStart = i;
+                } else if (c == '.' && paramsStart < 0) {
+                    nameStart = i + 1;
+                }
+            }
+            int nameEnd = paramsStart >= 0 ? paramsStart : colon;
+
+            boolean quotedPrintable = false;
+            Charset charset = StandardCharsets.UTF_8;
+            if (colon >= 0 && paramsStart >= 0) {
+                int paramStart = paramsStart + 1;
+                while (paramStart < colon) {
+                    int paramEnd = indexOf(card, ';', paramStart, colon);
+                    if (isParam(card, paramStart, paramEnd, "ENCODING=QUOTED-PRINTABLE")
+                            || isParam(card, paramStart, paramEnd, "QUOTED-PRINTABLE")) {
+                        quotedPrintable = true;
+                    } else if (startsWithIgnoreCase(card, paramStart, paramEnd, "CHARSET=")) {
+                        charset = charsetFor(card.substring(paramStart + 8, paramEnd));
+                    }
+                    paramStart = paramEnd + 1;
+                }
+            }
+
+            // Extend over folded lines; quoted-printable values also continue after a soft break '='
+            int valueEnd = lineEnd;
+            int next = skipLineBreak(card, lineEnd);
+            while (next < length) {
+                char c = card.charAt(next);
+                boolean folded = c == ' ' || c == '\t';
+                boolean softBreak = quotedPrintable && valueEnd > lineStart && card.charAt(valueEnd - 1) == '=';
+                if (!folded && !softBreak) {
+                    break;
+                }
+                valueEnd = lineEnd(card, next);
+                next = skipLineBreak(card, valueEnd);
+            }
+
+            if (colon >= 0) {
+                int nameLength = nameEnd - nameStart;
+                if (nameLength == 2 && card.regionMatches(true, nameStart, "FN", 0, 2)) {
+                    if (record.formattedName == null) {
+                        record.formattedName = value(card, colon + 1, valueEnd, quotedPrintable, charset);
+                        record.formattedNameStart = lineStart;
+                        record.formattedNameEnd = next;
+                    }
+                } else if (nameLength == 1 && (card.charAt(nameStart) == 'N' || card.charAt(nameStart) == 'n')) {
+                    if (record.structuredName == null) {
+                        record.structuredName = value(card, colon + 1, valueEnd, quotedPrintable, charset);
+                    }
+                } else if (nameLength == 3 && card.regionMatches(true, nameStart, "TEL", 0, 3)) {
+                    record.phoneNumbers.add(value(card, colon + 1, valueEnd, quotedPrintable, charset));
+                } else if (nameLength == 5 && card.regionMatches(true, nameStart, "EMAIL", 0, 5)) {
+                    record.emails.add(value(card, colon + 1, valueEnd, quotedPrintable, charset));
+                } else if (nameLength == 5 && card.regionMatches(true, nameStart, "BEGIN", 0, 5)) {
+                    record.bodyStart = next;
+                }
+            }
+            pos = next;
+        }
+        return record;
+    }
+
+    // Unfolds and decodes the value in [start, end)
+    private static String value(String card, int start, int end, boolean quotedPrintable, Charset charset) {
+        if (!quotedPrintable) {
+            if (indexOf(card, '\n', start, end) == end && indexOf(card, '\r', start, end) == end) {
+                return card.substring(start, end);
+            }
+            StringBuilder unfolded = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                char c = card.charAt(i);
+                if (c == '\r' || c == '\n') {
+                    i = skipLineBreak(card, i);
+                    // Drop the single whitespace character that marks the continuation
+                    continue;
+                }
+                unfolded.append(c);
+            }
+            return unfolded.toString();
+        }
+
+        byte[] bytes = new byte[end - start];
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            char c = card.charAt(i);
+            if (c == '=' && i + 1 < end && (card.charAt(i + 1) == '\r' || card.charAt(i + 1) == '\n')) {
+                // Soft line break
+                i = skipLineBreak(card, i + 1) - 1;
+                continue;
+            }
+            if (c == '\r' || c == '\n') {
+                // Folded line: skip the break and the whitespace that follows it
+                i = skipLineBreak(card, i);
+                continue;
+            }
+            if (c == '=' && i + 2 < end) {
+                int high = Character.digit(card.charAt(i + 1), 16);
+                int low = Character.digit(card.charAt(i + 2), 16);
+                if (high >= 0 && low >= 0) {
+                    bytes = ensureCapacity(bytes, count + 1);
+                    bytes[count++] = (byte) ((high << 4) | low);
+                    i += 2;
+                    continue;
+                }
+            }
+            if (c < 0x80) {
+                bytes = ensureCapacity(bytes, count + 1);
+                bytes[count++] = (byte) c;
+            } else {
+                // Not valid quoted-printable, keep the character as it is
+                byte[] encoded = String.valueOf(c).getBytes(charset);
+                bytes = ensureCapacity(bytes, count + encoded.length);
+                System.arraycopy(encoded, 0, bytes, count, encoded.length);
+                count += encoded.length;
+            }
+        }
+        return new String(bytes, 0, count, charset);
+    }
+
+    private static byte[] ensureCapacity(byte[] bytes, int needed) {
+        if (needed <= bytes.length) {
+            return bytes;
+        }
+        byte[] grown = new byte[Math.max(needed, bytes.length * 2)];
+        System.arraycopy(bytes, 0, grown, 0, bytes.length);
+        return grown;
+    }
+
+    private static Charset charsetFor(String name) {
+        try {
+            return Charset.forName(name.trim().replace("\"", ""));
+        } catch (Exception e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    private static boolean isParam(String card, int start, int end, String param) {
+        return end - start == param.length() && card.regionMatches(true, start, param, 0, param.length());
+    }
+
+    private static boolean startsWithIgnoreCase(String card, int start, int end, String prefix) {
+        return end - start >= prefix.length() && card.regionMatches(true, start, prefix, 0, prefix.length());
+    }
+
+    private static int indexOf(String card, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (card.charAt(i) == c) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    // Position of the line break ending the line that starts at pos
+    private static int lineEnd(String card, int pos) {
+        int length = card.length();
+        while (pos < length) {
+            char c = card.charAt(pos);
+            if (c == '\n' || c == '\r') {
+                return pos;
+            }
+            pos++;
+        }
+        return length;
+    }
+
+    // Position after the line break at pos (\n, \r\n or \r)
+    private static int skipLineBreak(String card, int pos) {
+        int length = card.length();
+        if (pos < length && card.charAt(pos) == '\r') {
+            pos++;
+        }
+        if (pos < length && card.charAt(pos) == '\n') {
+            pos++;
+        }
+        return pos;
+    }
+}
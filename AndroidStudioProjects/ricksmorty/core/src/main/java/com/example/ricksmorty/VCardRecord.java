@@ -0,0 +1,61 @@
+package com.example.ricksmorty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The fields of one vCard that the app works with, as filled in by {@link VCardParser}.
+ * Positions refer to the vCard text that was parsed.
+ */
+public class VCardRecord {
+    String formattedName;
+    int formattedNameStart = -1;
+    int formattedNameEnd = -1;
+    String structuredName;
+    int bodyStart;
+    final List<String> phoneNumbers = new ArrayList<>(2);
+    final List<String> emails = new ArrayList<>(1);
+
+    /**
+     * Value of the first FN property, or null if there is none
+     */
+    public String getFormattedName() {
+        return formattedName;
+    }
+
+    /**
+     * Start of the FN property line, including its parameters
+     */
+    public int getFormattedNameStart() {
+        return formattedNameStart;
+    }
+
+    /**
+     * End of the FN property, after its last folded line and line break
+     */
+    public int getFormattedNameEnd() {
+        return formattedNameEnd;
+    }
+
+    /**
+     * Raw value of the first N property (family;given;middle;prefix;suffix), or null
+     */
+    public String getStructuredName() {
+        return structuredName;
+    }
+
+    /**
+     * Position just after the BEGIN:VCARD line, where new properties can be inserted
+     */
+    public int getBodyStart() {
+        return bodyStart;
+    }
+
+    public List<String> getPhoneNumbers() {
+        return phoneNumbers;
+    }
+
+    public List<String> getEmails() {
+        return emails;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.ricksmorty;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Random access to the file the contacts of a {@link ContactTable} were read from,
+ * so their vCards can be re-read or copied by byte range instead of kept in memory
+ */
+public interface VCardSource extends Closeable {
+    /**
+     * Read {@code length} bytes starting at {@code offset}
+     */
+    byte[] read(long offset, int length) throws IOException;
+
+    /**
+     * Copy {@code length} bytes starting at {@code offset} to {@code target} without
+     * decoding them
+     */
+    void transferTo(long offset, long length, WritableByteChannel target) throws IOException;
+}
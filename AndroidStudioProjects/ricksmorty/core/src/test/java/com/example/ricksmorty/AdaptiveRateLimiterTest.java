@@ -0,0 +1,95 @@
+package com.example.ricksmorty;
+
+import org.junit.Test;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveRateLimiterTest {
+    private static final double DELTA = 1e-9;
+
+    private long now = 1000;
+
+    private AdaptiveRateLimiter limiter(double initialRate, double burst) {
+        return new AdaptiveRateLimiter(initialRate, 0.5, 20, 1, burst, () -> now);
+    }
+
+    @Test
+    public void throttlingHalvesTheRateDownToTheMinimum() {
+        AdaptiveRateLimiter limiter = limiter(10, 4);
+        limiter.onThrottled();
+        assertEquals(5, limiter.getRate(), DELTA);
+        limiter.onThrottled();
+        assertEquals(2.5, limiter.getRate(), DELTA);
+        for (int i = 0; i < 10; i++) {
+            limiter.onThrottled();
+        }
+        assertEquals(0.5, limiter.getRate(), DELTA);
+        assertEquals(12, limiter.getThrottledCount());
+    }
+
+    @Test
+    public void successesRaiseTheRateUpToTheMaximum() {
+        AdaptiveRateLimiter limiter = limiter(10, 4);
+        limiter.onThrottled();
+        limiter.onThrottled();
+        for (int i = 0; i < 3; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(5.5, limiter.getRate(), DELTA);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(20, limiter.getRate(), DELTA);
+    }
+
+    @Test
+    public void initialRateIsClamped() {
+        assertEquals(20, limiter(50, 4).getRate(), DELTA);
+        assertEquals(0.5, limiter(0.1, 4).getRate(), DELTA);
+    }
+
+    @Test
+    public void burstIsSpentWithoutWaiting() throws InterruptedIOException {
+        AdaptiveRateLimiter limiter = limiter(10, 4);
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+        }
+        assertEquals(4, limiter.getAcquiredCount());
+        assertEquals(0, limiter.getWaitedMillis());
+    }
+
+    @Test
+    public void tokensRefillAtTheCurrentRate() throws InterruptedIOException {
+        AdaptiveRateLimiter limiter = limiter(10, 4);
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+        }
+        // Two tokens at 10 per second
+        now += TimeUnit.MILLISECONDS.toNanos(200);
+        limiter.acquire();
+        limiter.acquire();
+        assertEquals(0, limiter.getWaitedMillis());
+
+        // At the halved rate the same time earns a single token, and the caller after it waits 200 ms
+        limiter.onThrottled();
+        now += TimeUnit.MILLISECONDS.toNanos(200);
+        limiter.acquire();
+        assertEquals(0, limiter.getWaitedMillis());
+        limiter.acquire();
+        assertEquals(200, limiter.getWaitedMillis());
+    }
+
+    @Test
+    public void idleTimeEarnsNoMoreThanTheBurst() throws InterruptedIOException {
+        AdaptiveRateLimiter limiter = limiter(10, 2);
+        now += TimeUnit.SECONDS.toNanos(60);
+        limiter.acquire();
+        limiter.acquire();
+        assertEquals(0, limiter.getWaitedMillis());
+        limiter.acquire();
+        assertEquals(100, limiter.getWaitedMillis());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.ricksmorty;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+    private static final long OPEN_MS = 30000;
+
+    private long now = 1000;
+    private final CircuitBreaker breaker = new CircuitBreaker(3, OPEN_MS, () -> now);
+
+    private void advanceMillis(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.allowRequest());
+            breaker.onFailure();
+        }
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.isCallPermitted());
+        assertFalse(breaker.allowRequest());
+        assertEquals(1, breaker.getOpenedCount());
+        assertEquals(1, breaker.getRejectedCount());
+    }
+
+    @Test
+    public void successResetsTheFailureCount() {
+        fail(2);
+        assertTrue(breaker.allowRequest());
+        breaker.onSuccess();
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void trialCallAfterTheOpenPeriodClosesTheBreaker() {
+        fail(3);
+        advanceMillis(OPEN_MS - 1);
+        assertFalse(breaker.allowRequest());
+
+        advanceMillis(1);
+        assertTrue(breaker.isCallPermitted());
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // Only one trial call at a time
+        assertFalse(breaker.isCallPermitted());
+        assertFalse(breaker.allowRequest());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void failedTrialCallReopensTheBreaker() {
+        fail(3);
+        advanceMillis(OPEN_MS);
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getOpenedCount());
+
+        // A full open period again, counted from the failed trial
+        advanceMillis(OPEN_MS - 1);
+        assertFalse(breaker.allowRequest());
+        advanceMillis(1);
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void abandonedTrialCallLetsAnotherOneThrough() {
+        fail(3);
+        advanceMillis(OPEN_MS);
+        assertTrue(breaker.allowRequest());
+        breaker.onAbandoned();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.ricksmorty;
+
+import org.junit.Test;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class GtxResponseReaderTest {
+
+    // {response, translation}
+    private static final String[][] TRANSLATIONS = {
+            {"[[[\"राहुल\",\"Rahul\",null,null,10]],null,\"en\"]", "राहुल"},
+            {"[[[\"राहुल \",\"Rahul \",null,null,10],[\"शर्मा\",\"Sharma\",null,null,10]],null,\"en\"]",
+                    "राहुल शर्मा"},
+            {"[[[\"say \\\"hi\\\"\",\"x\"]],null,\"hi\"]", "say \"hi\""},
+            {"[[[\"a\\\\b\\/c\\td\",\"x\"]],null,\"hi\"]", "a\\b/c\td"},
+            {"[[[\"\\u0930\\u093e\\u0939\\u0941\\u0932\",\"x\"]],null,\"en\"]", "राहुल"},
+            {"[[[\"\\u00E9t\\u00e9\",\"x\"]],null,\"en\"]", "été"},
+            // Whitespace between tokens, nested arrays and numbers after the text
+            {" [ [ [ \"ok\" , \"x\" , [[1,2],[]] , 3.5e2 ] ] , null , \"en\" ] ", "ok"},
+            // null in place of the segments, of a segment, or of the translated text
+            {"[null,null,\"en\"]", ""},
+            {"[[],null,\"en\"]", ""},
+            {"[[null,[\"b\",\"x\"]],null,\"en\"]", "b"},
+            {"[[[null,\"x\"],[\"b\",\"x\"]],null,\"en\"]", "b"},
+            {"[[[]],null,\"en\"]", ""},
+    };
+
+    private static final String[] MALFORMED = {
+            "",
+            "[",
+            "[[[\"राह",
+            "[[[\"abc\\",
+            "[[[\"abc\\u09",
+            "[[[\"abc\\u09zz\",\"x\"]]]",
+            "[[[\"a\",\"x\"]",
+            "[[[\"a\",\"x\";]]]",
+            "{\"error\":\"x\"}",
+            "[{\"error\":\"x\"}]",
+            "[[\"a\",\"x\"],null,\"en\"]",
+            "<html>Too many requests</html>",
+    };
+
+    private static String translation(Reader reader) throws IOException {
+        StringBuilder out = new StringBuilder();
+        new GtxResponseReader(reader).readTranslation(out);
+        return out.toString();
+    }
+
+    private static List<String> lines(String response) throws IOException {
+        List<String> lines = new ArrayList<>();
+        new GtxResponseReader(new StringReader(response)).readLines(lines);
+        return lines;
+    }
+
+    @Test
+    public void decodesTranslations() throws IOException {
+        for (String[] row : TRANSLATIONS) {
+            assertEquals(row[0], row[1], translation(new StringReader(row[0])));
+        }
+    }
+
+    @Test
+    public void decodesAcrossBufferBoundaries() throws IOException {
+        for (String[] row : TRANSLATIONS) {
+            assertEquals(row[0], row[1], translation(new OneCharReader(row[0])));
+        }
+        StringBuilder text = new StringBuilder();
+        StringBuilder response = new StringBuilder("[[");
+        for (int i = 0; i < 2000; i++) {
+            text.append("नाम ").append(i).append(' ');
+            response.append(i == 0 ? "[" : ",[").append("\"\\u0928\\u093e\\u092e ").append(i).append(" \",\"x\"]");
+        }
+        response.append("],null,\"en\"]");
+        assertEquals(text.toString(), translation(new StringReader(response.toString())));
+    }
+
+    @Test
+    public void splitsBatchedLines() throws IOException {
+        // Segments end where the service split sentences, not where the lines break
+        assertEquals(Arrays.asList("राहुल", "अमित", "सीमा"),
+                lines("[[[\"राहुल\\nअमित\\n\",\"Rahul\\nAmit\\n\"],[\"सीमा\",\"Seema\"]],null,\"en\"]"));
+        assertEquals(Arrays.asList("राहुल", "अमित"),
+                lines("[[[\"राहुल\\n\",\"Rahul\\n\"],[\"अमित\",\"Amit\"]],null,\"en\"]"));
+        assertEquals(Arrays.asList("राहुल", "अ", "मित"),
+                lines("[[[\"राहुल\\nअ\",\"x\"],[\"\\nमित\",\"x\"]],null,\"en\"]"));
+        // A trailing separator comes back as an empty last line, which the client drops
+        assertEquals(Arrays.asList("a", "b", ""), lines("[[[\"a\\nb\\n\",\"x\"]],null,\"en\"]"));
+        assertEquals(Collections.singletonList(""), lines("[null,null,\"en\"]"));
+    }
+
+    @Test
+    public void consumesTheWholeResponse() throws IOException {
+        StringReader reader = new StringReader("[[[\"a\",\"x\"]],null,\"en\",null,null,[[\"x\",null,[[\"a\",0]]]]]");
+        assertEquals("a", translation(reader));
+        assertEquals(-1, reader.read());
+    }
+
+    @Test
+    public void malformedResponsesThrow() {
+        for (String response : MALFORMED) {
+            try {
+                translation(new StringReader(response));
+                fail("No exception for " + response);
+            } catch (IOException expected) {
+                // Expected
+            }
+            try {
+                lines(response);
+                fail("No exception for " + response);
+            } catch (IOException expected) {
+                // Expected
+            }
+        }
+    }
+
+    // Hands out one character per read, so every token straddles a buffer refill
+    private static class OneCharReader extends FilterReader {
+        OneCharReader(String text) {
+            super(new StringReader(text));
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return super.read(buffer, offset, Math.min(1, length));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.ricksmorty;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class GtxTranslatorTest {
+    // One first try plus the retries of GtxTranslator
+    private static final int THROTTLED_ATTEMPTS = 5;
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 429;
+    private CircuitBreaker breaker;
+    private GtxTranslator translator;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = "[[[\"नाम\",\"name\"]],null,\"en\"]".getBytes(StandardCharsets.UTF_8);
+            exchange.getRequestBody().readAllBytes();
+            // Retry right away, so the test does not wait through the backoff
+            exchange.getResponseHeaders().set("Retry-After", "0");
+            exchange.sendResponseHeaders(status, status == 200 ? body.length : -1);
+            try (OutputStream out = exchange.getResponseBody()) {
+                if (status == 200) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start();
+
+        breaker = new CircuitBreaker(2, 60000);
+        translator = new GtxTranslator("http://127.0.0.1:" + server.getAddress().getPort(), 1,
+                new AdaptiveRateLimiter(1000, 1000, 1000, 0, 1000), breaker);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private static List<String> texts(int count) {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            texts.add("name" + i);
+        }
+        return texts;
+    }
+
+    @Test
+    public void throttledBatchIsNotRetriedTextByText() {
+        List<String> results = translator.fetchBatch(texts(20), "en", "hi");
+        assertEquals(Collections.nCopies(20, (String) null), results);
+        assertEquals(THROTTLED_ATTEMPTS, requests.get());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void sustainedThrottlingOpensTheBreaker() {
+        translator.fetchBatch(texts(20), "en", "hi");
+        translator.fetchBatch(texts(20), "en", "hi");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(translator.isAvailable());
+
+        // Rejected without a request
+        assertEquals(Collections.nCopies(5, (String) null), translator.fetchBatch(texts(5), "en", "hi"));
+        assertEquals(2 * THROTTLED_ATTEMPTS, requests.get());
+    }
+
+    @Test
+    public void throttledSingleTextThrowsUnavailable() throws IOException {
+        try {
+            translator.fetch("name", "en", "hi");
+            fail("No exception while rate limited");
+        } catch (GtxTranslator.UnavailableException expected) {
+            // Expected
+        }
+        assertEquals(THROTTLED_ATTEMPTS, requests.get());
+    }
+
+    @Test
+    public void clientErrorsFailOnlyTheRequest() {
+        status = 400;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(null, translator.translate("name", "en", "hi"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(3, requests.get());
+
+        status = 200;
+        assertEquals(Arrays.asList("नाम"), translator.translateBatch(Collections.singletonList("name"), "en", "hi"));
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.ricksmorty;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NameTranslatorTest {
+
+    // Answers from a fixed table and counts the texts it was asked for
+    private static class StubTranslator implements Translator {
+        final Map<String, String> answers = new HashMap<>();
+        final List<String> asked = new ArrayList<>();
+
+        @Override
+        public String translate(String text, String sourceLang, String targetLang) {
+            asked.add(text);
+            return answers.get(text);
+        }
+    }
+
+    private final StubTranslator remote = new StubTranslator();
+    private final NameTranslator translator = new NameTranslator(true, new OfflineTransliterator(), remote);
+
+    @Test
+    public void dictionaryNamesNeverReachTheRemote() {
+        assertEquals("राहुल शर्मा", translator.translateName("Rahul Sharma", null, "en", "hi"));
+        assertTrue(remote.asked.isEmpty());
+        assertEquals(2, translator.getOfflineCount());
+        assertFalse(translator.isGuessed("Rahul Sharma", null, "en", "hi"));
+    }
+
+    @Test
+    public void unknownTokensAskTheRemoteOnce() {
+        remote.answers.put("Zubin", "ज़ुबिन");
+        assertEquals("ज़ुबिन शर्मा", translator.translateName("Zubin Sharma", null, "en", "hi"));
+        assertEquals("ज़ुबिन", translator.translateName("Zubin", null, "en", "hi"));
+        assertEquals(1, remote.asked.size());
+        assertEquals(1, translator.getRequestCount());
+        assertFalse(translator.isGuessed("Zubin Sharma", null, "en", "hi"));
+    }
+
+    @Test
+    public void remoteMissFallsBackToTheRuleBasedGuess() {
+        assertEquals("कम्ला जैन", translator.translateName("Kamla Jain", null, "en", "hi"));
+        assertTrue(translator.isGuessed("Kamla Jain", null, "en", "hi"));
+        assertFalse(translator.isGuessed("Jain", null, "en", "hi"));
+
+        // Forgotten guesses are asked for again
+        remote.answers.put("Kamla", "कमला");
+        translator.forgetGuesses();
+        assertEquals("कमला जैन", translator.translateName("Kamla Jain", null, "en", "hi"));
+        assertEquals(2, remote.asked.size());
+        // A result translated before the guess was forgotten may still carry it
+        assertTrue(translator.isGuessed("Kamla Jain", null, "en", "hi"));
+    }
+
+    @Test
+    public void guessesForgottenConcurrentlyAreNeverTakenForTranslations() throws Exception {
+        // Thread-safe remote that never answers and counts the requests
+        AtomicInteger asked = new AtomicInteger();
+        NameTranslator concurrent = new NameTranslator(true, new OfflineTransliterator(), new Translator() {
+            @Override
+            public String translate(String text, String sourceLang, String targetLang) {
+                asked.incrementAndGet();
+                return null;
+            }
+        });
+        int threads = 4;
+        int names = 2000;
+        AtomicBoolean done = new AtomicBoolean();
+        Thread forgetter = new Thread(() -> {
+            while (!done.get()) {
+                concurrent.forgetGuesses();
+            }
+        });
+        forgetter.start();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            results.add(workers.submit(() -> {
+                for (int i = offset; i < names; i += threads) {
+                    String name = "Zq" + i;
+                    if (i % 2 == 0) {
+                        concurrent.translateName(name, null, "en", "hi");
+                    } else {
+                        NameTranslator.Batch batch = concurrent.newBatch();
+                        batch.add(name, null, "en", "hi");
+                        batch.translate();
+                    }
+                    assertTrue(name, concurrent.isGuessed(name, null, "en", "hi"));
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        workers.shutdown();
+        done.set(true);
+        forgetter.join();
+
+        // Nothing the remote failed on was kept as a translation
+        concurrent.forgetGuesses();
+        int before = asked.get();
+        for (int i = 0; i < names; i++) {
+            concurrent.translateName("Zq" + i, null, "en", "hi");
+        }
+        assertEquals(before + names, asked.get());
+    }
+
+    @Test
+    public void batchOnlyRequestsUnknownTokens() {
+        remote.answers.put("Zubin", "ज़ुबिन");
+        NameTranslator.Batch batch = translator.newBatch();
+        batch.add("Zubin Sharma", "Sharma;Zubin;;;", "en", "hi");
+        batch.add("Rahul Jain", null, "en", "hi");
+        batch.translate();
+        assertEquals(List.of("Zubin"), remote.asked);
+        assertEquals("ज़ुबिन शर्मा", translator.translateName("Zubin Sharma", "Sharma;Zubin;;;", "en", "hi"));
+        assertEquals(1, remote.asked.size());
+    }
+
+    @Test
+    public void nameTokensFollowTheStructuredName() {
+        assertEquals(List.of("Maria", "De Souza"), NameTranslator.nameTokens("Maria De Souza", "De Souza;Maria;;;"));
+        // N describing another name is ignored
+        assertEquals(List.of("Maria", "De", "Souza"), NameTranslator.nameTokens("Maria  De Souza ", "Souza;M;;;"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.ricksmorty;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OfflineTransliteratorTest {
+    private final OfflineTransliterator transliterator = new OfflineTransliterator();
+
+    // {English, Hindi} names found in the dictionary
+    private static final String[][] DICTIONARY_NAMES = {
+            {"Rahul", "राहुल"}, {"Priya Sharma", "प्रिया शर्मा"}, {"Krishna", "कृष्ण"},
+            {"Anand", "आनंद"}, {"Singh", "सिंह"}, {"Arjun Kapoor", "अर्जुन कपूर"}
+    };
+
+    // {Latin word, rule-based Devanagari spelling}
+    private static final String[][] LATIN_RULES = {
+            // Anusvara before a stop
+            {"Sandeep", "संदीप"}, {"Pankaj", "पंकज"}, {"Anjali", "अंजलि"}, {"Shambhu", "शंभु"},
+            // Full nasal before semivowels, sibilants and h
+            {"Kamla", "कम्ला"}, {"Imran", "इम्रन"}, {"Sanya", "सन्या"}, {"Tanvi", "तन्वि"},
+            {"Mansi", "मन्सि"},
+            // Final "a" is long, a final consonant has no vowel
+            {"Rekha", "रेखा"}, {"Harsh", "हर्श"},
+            {"Xavier", "ज़विएर"}
+    };
+
+    // {Devanagari word, rule-based Latin spelling}
+    private static final String[][] DEVANAGARI_RULES = {
+            // Silent inherent vowel inside the word
+            {"इमरान", "imran"}, {"जगदीश", "jagdish"}, {"अमरनाथ", "amarnath"}, {"दिनकर", "dinkar"},
+            // Inherent vowel kept where it is pronounced
+            {"कमल", "kamal"}, {"करण", "karan"}, {"प्रकाश", "prakash"}, {"संजय", "sanjay"},
+            // Final conjunct keeps its vowel
+            {"कृष्ण", "krishna"}, {"इंद्र", "indra"},
+            {"अंबर", "ambar"}
+    };
+
+    @Test
+    public void dictionaryNamesAreConfidentBothWays() {
+        for (String[] name : DICTIONARY_NAMES) {
+            OfflineTransliterator.Result toHindi = transliterator.transliterate(name[0], "en", "hi");
+            assertEquals(name[0], name[1], toHindi.getText());
+            assertTrue(name[0], toHindi.isConfident());
+
+            OfflineTransliterator.Result toEnglish = transliterator.transliterate(name[1], "hi", "en");
+            assertEquals(name[1], name[0], toEnglish.getText());
+            assertTrue(name[1], toEnglish.isConfident());
+        }
+    }
+
+    @Test
+    public void latinRules() {
+        for (String[] word : LATIN_RULES) {
+            assertEquals(word[0], word[1], OfflineTransliterator.latinToDevanagari(word[0]));
+        }
+    }
+
+    @Test
+    public void devanagariRules() {
+        for (String[] word : DEVANAGARI_RULES) {
+            assertEquals(word[0], word[1], OfflineTransliterator.devanagariToLatin(word[0]));
+        }
+    }
+
+    @Test
+    public void confidentOnlyWhenEveryWordIsKnown() {
+        OfflineTransliterator.Result partly = transliterator.transliterate("Rahul Imran", "en", "hi");
+        assertEquals("राहुल इम्रन", partly.getText());
+        assertFalse(partly.isConfident());
+        assertNull(transliterator.translate("Rahul Imran", "en", "hi"));
+
+        OfflineTransliterator.Result reverse = transliterator.transliterate("राहुल इमरान", "hi", "en");
+        assertEquals("Rahul Imran", reverse.getText());
+        assertFalse(reverse.isConfident());
+
+        assertEquals("राहुल शर्मा", transliterator.translate("Rahul Sharma", "en", "hi"));
+    }
+
+    @Test
+    public void textWithoutWordsIsNotConfident() {
+        assertFalse(transliterator.transliterate("123 -", "en", "hi").isConfident());
+        assertFalse(transliterator.transliterate("", "hi", "en").isConfident());
+    }
+
+    @Test
+    public void punctuationAndCaseArePreserved() {
+        assertEquals("राहुल-शर्मा, जैन", transliterator.translate("RAHUL-sharma, Jain", "en", "hi"));
+    }
+
+    @Test
+    public void otherLanguagePairsAreLeftAlone() {
+        OfflineTransliterator.Result result = transliterator.transliterate("Rahul", "en", "fr");
+        assertEquals("Rahul", result.getText());
+        assertFalse(result.isConfident());
+    }
+}